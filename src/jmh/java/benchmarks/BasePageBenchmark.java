@@ -0,0 +1,87 @@
+package benchmarks;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Playwright;
+import org.openjdk.jmh.annotations.*;
+import pages.BasePage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BasePage click, fill and getText against a static local page in headless Chromium.
+ * Measures the action wrappers plus one driver round trip, without any network.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+public class BasePageBenchmark {
+    private static final String HTML = "<html><body>"
+            + "<input placeholder='Account Name'>"
+            + "<button name='SaveEdit' onclick=\"document.getElementById('status').textContent = 'Saved'\">Save</button>"
+            + "<div id='status'>Ready</div>"
+            + "</body></html>";
+
+    private Playwright playwright;
+    private Browser browser;
+    private FormPage formPage;
+
+    @Setup(Level.Trial)
+    public void openPage() {
+        playwright = Playwright.create();
+        browser = playwright.chromium().launch(new BrowserType.LaunchOptions().setHeadless(true));
+        Page page = browser.newPage();
+        page.setContent(HTML);
+        formPage = new FormPage(page);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeBrowser() {
+        browser.close();
+        playwright.close();
+    }
+
+    @Benchmark
+    public void click() {
+        formPage.clickSave();
+    }
+
+    @Benchmark
+    public void fill() {
+        formPage.fillName("Test Account 1");
+    }
+
+    @Benchmark
+    public String getText() {
+        return formPage.getStatus();
+    }
+
+    /**
+     * Page object for the static benchmark page
+     */
+    static class FormPage extends BasePage {
+        private static final String NAME_INPUT = "input[placeholder='Account Name']";
+        private static final String SAVE_BUTTON = "button[name='SaveEdit']";
+        private static final String STATUS = "#status";
+
+        FormPage(Page page) {
+            super(page);
+        }
+
+        void clickSave() {
+            click(SAVE_BUTTON);
+        }
+
+        void fillName(String name) {
+            fill(NAME_INPUT, name);
+        }
+
+        String getStatus() {
+            return getText(STATUS);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import utils.CSVUtils;
+import utils.CsvReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV DataProvider load time up to a million rows: the CsvReader tokenizer alone, CSVUtils streaming from the
+ * file and from the binary snapshot, and the previous String.split reader as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+public class CsvReaderBenchmark {
+
+    @Param({"10", "10000", "100000", "1000000"})
+    public int rows;
+
+    private String csvName;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        csvName = "Accounts" + rows + ".csv";
+        file = Paths.get("testData", csvName);
+        TestDataFiles.writeCsv(file, rows);
+
+        // Compile the snapshot up front so the snapshot benchmark measures loading only
+        System.setProperty("data.snapshots", "true");
+        drain(CSVUtils.getTestDataIteratorFromCSV(csvName), null);
+    }
+
+    @Benchmark
+    public void legacySplit(Blackhole blackhole) throws IOException {
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String[] headers = br.readLine().split(",");
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] values = line.split(",");
+                Map<String, String> rowData = new HashMap<>();
+                for (int i = 0; i < headers.length && i < values.length; i++) {
+                    rowData.put(headers[i].trim(), values[i].trim());
+                }
+                blackhole.consume(rowData);
+            }
+        }
+    }
+
+    @Benchmark
+    public void tokenizer(Blackhole blackhole) throws IOException {
+        try (CsvReader reader = new CsvReader(file)) {
+            while (reader.hasNext()) {
+                blackhole.consume(reader.next());
+            }
+        }
+    }
+
+    @Benchmark
+    public void streaming(Blackhole blackhole) {
+        System.setProperty("data.snapshots", "false");
+        drain(CSVUtils.getTestDataIteratorFromCSV(csvName), blackhole);
+    }
+
+    @Benchmark
+    public void snapshot(Blackhole blackhole) {
+        System.setProperty("data.snapshots", "true");
+        drain(CSVUtils.getTestDataIteratorFromCSV(csvName), blackhole);
+    }
+
+    private static void drain(Iterator<Object[]> rows, Blackhole blackhole) {
+        while (rows.hasNext()) {
+            Object[] row = rows.next();
+            if (blackhole != null) {
+                blackhole.consume(row);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import utils.ExcelUtils;
+import utils.SheetCache;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataProvider load time for small, large and huge Excel inputs, from the workbook, streamed from the sheet
+ * and from the binary snapshots. CSV inputs are covered by CsvReaderBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+public class DataProviderBenchmark {
+
+    @Param({"10", "10000", "100000"})
+    public int rows;
+
+    private String sheetName;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        sheetName = "Accounts" + rows;
+        TestDataFiles.writeWorkbook(Paths.get("testData", "TestData.xlsx"), sheetName, rows);
+
+        // Compile the snapshot up front so the snapshot benchmark measures loading only
+        configure(true, false);
+        ExcelUtils.getTestData(sheetName);
+    }
+
+    @Benchmark
+    public void excelWorkbook(Blackhole blackhole) {
+        configure(false, false);
+        SheetCache.clear();
+        blackhole.consume(ExcelUtils.getTestData(sheetName));
+    }
+
+    @Benchmark
+    public void excelStreaming(Blackhole blackhole) {
+        configure(false, true);
+        drain(ExcelUtils.getTestDataIterator(sheetName), blackhole);
+    }
+
+    @Benchmark
+    public void excelSnapshot(Blackhole blackhole) {
+        configure(true, false);
+        SheetCache.clear();
+        blackhole.consume(ExcelUtils.getTestData(sheetName));
+    }
+
+    private static void configure(boolean snapshots, boolean streaming) {
+        System.setProperty("data.snapshots", String.valueOf(snapshots));
+        System.setProperty("excel.streaming", String.valueOf(streaming));
+    }
+
+    private static void drain(Iterator<Object[]> rows, Blackhole blackhole) {
+        while (rows.hasNext()) {
+            blackhole.consume(rows.next());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import utils.Log;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of a Log call on the action path. The benchmark logging configuration enables WARN only,
+ * so the info calls measure a disabled level and the warn call an enabled one written by the async appender.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+public class LogBenchmark {
+    public String selector = "input[placeholder='Account Name']";
+    public String text = "Test Account 1";
+
+    @Benchmark
+    public void disabledConcatenated() {
+        Log.info("Filling field " + selector + " with: " + text);
+    }
+
+    @Benchmark
+    public void disabledParameterized() {
+        Log.info("Filling field {} with: {}", selector, text);
+    }
+
+    @Benchmark
+    public void disabledSupplier() {
+        Log.info(() -> "Filling field " + selector + " with: " + text);
+    }
+
+    @Benchmark
+    public void enabledParameterized() {
+        Log.warn("Filling field {} with: {}", selector, text);
+    }
+}
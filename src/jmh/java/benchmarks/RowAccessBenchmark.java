@@ -0,0 +1,52 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import utils.DataRow;
+import utils.RowSchema;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading every column of a data row, as a test does with testData.get("Username")
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+public class RowAccessBenchmark {
+    private Map<String, String> hashMapRow;
+    private Map<String, String> dataRow;
+    private String[] keys;
+
+    @Setup
+    public void createRows() {
+        String[] values = TestDataFiles.row(1);
+        hashMapRow = new HashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            hashMapRow.put(TestDataFiles.HEADERS[i], values[i]);
+        }
+        dataRow = new DataRow(new RowSchema(Arrays.asList(TestDataFiles.HEADERS)), values);
+        // Lookups use equal but not identical keys, like string literals from another class would
+        keys = Arrays.stream(TestDataFiles.HEADERS).map(String::new).toArray(String[]::new);
+    }
+
+    @Benchmark
+    public void hashMapGet(Blackhole blackhole) {
+        for (String key : keys) {
+            blackhole.consume(hashMapRow.get(key));
+        }
+    }
+
+    @Benchmark
+    public void dataRowGet(Blackhole blackhole) {
+        for (String key : keys) {
+            blackhole.consume(dataRow.get(key));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package benchmarks;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Generates account test data files of a given size, shaped like testData/AccountData.csv
+ */
+final class TestDataFiles {
+    static final String[] HEADERS = {"TestCase", "Username", "Password", "URL", "AccountName", "AccountType",
+            "Industry", "Phone", "Website"};
+
+    private TestDataFiles() {
+    }
+
+    static String[] row(int i) {
+        return new String[]{"AccountCreation" + i, "testuser@example.com", "password123",
+                "https://test.salesforce.com", "Test Account " + i, "Customer - Direct", "Technology",
+                "123-456-7890", "https://www.testaccount" + i + ".com"};
+    }
+
+    static void writeCsv(Path file, int rows) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(String.join(",", HEADERS));
+            writer.write('\n');
+            for (int i = 0; i < rows; i++) {
+                writer.write(String.join(",", row(i)));
+                writer.write('\n');
+            }
+        }
+    }
+
+    static void writeWorkbook(Path file, String sheetName, int rows) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+             OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet(sheetName);
+            writeRow(sheet.createRow(0), HEADERS);
+            for (int i = 0; i < rows; i++) {
+                writeRow(sheet.createRow(i + 1), row(i));
+            }
+            workbook.write(out);
+            workbook.dispose();
+        }
+    }
+
+    private static void writeRow(Row row, String[] values) {
+        for (int i = 0; i < values.length; i++) {
+            row.createCell(i).setCellValue(values[i]);
+        }
+    }
+}
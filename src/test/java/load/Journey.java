@@ -0,0 +1,101 @@
+package load;
+
+import pages.AccountPage;
+import pages.LoginPage;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Business journeys a virtual user replays in a loop, built from the page object flows the tests use.
+ * Each journey is a list of named steps; a step fails by throwing or by returning false.
+ */
+public enum Journey {
+    /**
+     * Open the login page and log in
+     */
+    LOGIN {
+        @Override
+        List<Step> steps() {
+            return Arrays.asList(OPEN_LOGIN_PAGE, LOG_IN);
+        }
+    },
+
+    /**
+     * Log in, open the Accounts list and create an account with a unique name
+     */
+    CREATE_ACCOUNT {
+        @Override
+        List<Step> steps() {
+            return Arrays.asList(OPEN_LOGIN_PAGE, LOG_IN, OPEN_ACCOUNTS, OPEN_NEW_ACCOUNT_FORM, SAVE_ACCOUNT);
+        }
+    };
+
+    private static final Step OPEN_LOGIN_PAGE = new Step("Open login page", (user, data) -> {
+        user.getLoginPage().navigateToLoginPage(data.get("URL"));
+        return true;
+    });
+    private static final Step LOG_IN = new Step("Log in", (user, data) -> {
+        LoginPage loginPage = user.getLoginPage();
+        loginPage.login(data.get("Username"), data.get("Password"));
+        return loginPage.isLoginSuccessful();
+    });
+    private static final Step OPEN_ACCOUNTS = new Step("Open Accounts list", (user, data) -> {
+        user.getAccountPage().navigateToAccounts();
+        return true;
+    });
+    private static final Step OPEN_NEW_ACCOUNT_FORM = new Step("Open new account form", (user, data) -> {
+        user.getAccountPage().clickNewButton();
+        return true;
+    });
+    private static final Step SAVE_ACCOUNT = new Step("Create account", (user, data) -> {
+        AccountPage accountPage = user.getAccountPage();
+        String name = data.getOrDefault("AccountName", "Load Account") + " " + user.getName() + "-" + user.getIteration();
+        accountPage.createAccount(name, data.get("AccountType"), data.get("Industry"), data.get("Phone"),
+                data.get("Website"));
+        return accountPage.isAccountCreatedSuccessfully();
+    });
+
+    /**
+     * Gets the steps of this journey in the order they run
+     */
+    abstract List<Step> steps();
+
+    /**
+     * Gets the step names of this journey in the order they run
+     */
+    public List<String> getStepNames() {
+        String[] names = steps().stream().map(Step::getName).toArray(String[]::new);
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /**
+     * One named step of a journey
+     */
+    static class Step {
+        private final String name;
+        private final Action action;
+
+        Step(String name, Action action) {
+            this.name = name;
+            this.action = action;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        boolean run(VirtualUser user, Map<String, String> data) {
+            return action.run(user, data);
+        }
+    }
+
+    /**
+     * Body of a step, returning false when the page did not reach the expected state
+     */
+    interface Action {
+        boolean run(VirtualUser user, Map<String, String> data);
+    }
+}
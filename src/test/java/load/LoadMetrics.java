@@ -0,0 +1,179 @@
+package load;
+
+import utils.LatencyHistogram;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Latency and error counts of a load run per journey step, kept both for the whole run and for the
+ * current sampling interval. Every interval is appended to a CSV time series with one line per step.
+ */
+class LoadMetrics {
+    static final String JOURNEY = "Journey";
+
+    private static final String CSV_HEADER = "time,elapsed_s,phase,active_users,step,count,errors,error_rate,"
+            + "per_minute,p50_ms,p95_ms,p99_ms,max_ms";
+
+    private final Map<String, StepStats> steps = new LinkedHashMap<>();
+    private final BufferedWriter timeSeries;
+    private long lastSampleNanos;
+    private long steadyJourneys;
+    private double steadySeconds;
+
+    LoadMetrics(List<String> stepNames, Path timeSeriesPath) throws IOException {
+        for (String step : stepNames) {
+            steps.put(step, new StepStats());
+        }
+        steps.put(JOURNEY, new StepStats());
+        Files.createDirectories(timeSeriesPath.toAbsolutePath().getParent());
+        timeSeries = Files.newBufferedWriter(timeSeriesPath, StandardCharsets.UTF_8);
+        timeSeries.write(CSV_HEADER);
+        timeSeries.newLine();
+        lastSampleNanos = System.nanoTime();
+    }
+
+    /**
+     * Records a finished step or, under {@link #JOURNEY}, a whole journey. Failed runs count as errors
+     * and their latency is recorded too, so slow failures such as timeouts show in the percentiles.
+     */
+    void record(String step, long nanos, boolean success) {
+        StepStats stats = steps.get(step);
+        synchronized (stats) {
+            stats.total.record(nanos, success);
+            stats.interval.record(nanos, success);
+        }
+    }
+
+    /**
+     * Records a failure that has no latency, such as a user whose browser could not be started
+     */
+    void recordError(String step) {
+        StepStats stats = steps.get(step);
+        synchronized (stats) {
+            stats.total.recordUnmeasuredError();
+            stats.interval.recordUnmeasuredError();
+        }
+    }
+
+    /**
+     * Closes the current interval and appends it to the time series. Called from the sampler thread only.
+     */
+    void sample(long elapsedSeconds, LoadRunner.Phase phase, int activeUsers) throws IOException {
+        long now = System.nanoTime();
+        double seconds = Math.max(0.001, (now - lastSampleNanos) / 1e9);
+        lastSampleNanos = now;
+        String time = Instant.now().toString();
+        for (Map.Entry<String, StepStats> entry : steps.entrySet()) {
+            StepStats stats = entry.getValue();
+            Counts closed;
+            // Latency and errors of one run always land in the same interval
+            synchronized (stats) {
+                closed = stats.interval;
+                stats.interval = new Counts();
+            }
+            LatencyHistogram interval = closed.histogram;
+            long errors = closed.errors;
+            long count = closed.getCount();
+            long succeeded = count - errors;
+            if (entry.getKey().equals(JOURNEY) && phase == LoadRunner.Phase.STEADY) {
+                steadyJourneys += succeeded;
+                steadySeconds += seconds;
+            }
+            timeSeries.write(String.join(",", time, Long.toString(elapsedSeconds), phase.toString(),
+                    Integer.toString(activeUsers), csv(entry.getKey()), Long.toString(count), Long.toString(errors),
+                    format(count == 0 ? 0 : (double) errors / count), format(succeeded * 60 / seconds),
+                    format(interval.getPercentileMillis(0.50)), format(interval.getPercentileMillis(0.95)),
+                    format(interval.getPercentileMillis(0.99)), format(interval.getMaxMillis())));
+            timeSeries.newLine();
+        }
+        timeSeries.flush();
+    }
+
+    void close() throws IOException {
+        timeSeries.close();
+    }
+
+    /**
+     * Gets completed journeys per minute during the steady-state phase, or 0 when it has not been sampled
+     */
+    double getSteadyThroughput() {
+        return steadySeconds == 0 ? 0 : steadyJourneys * 60 / steadySeconds;
+    }
+
+    /**
+     * Gets one entry per step and one for the whole journey with counts, error rate and percentiles of the run
+     */
+    List<Map<String, Object>> getSummary() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Map.Entry<String, StepStats> entry : steps.entrySet()) {
+            StepStats stats = entry.getValue();
+            Map<String, Object> row = new LinkedHashMap<>();
+            synchronized (stats) {
+                LatencyHistogram histogram = stats.total.histogram;
+                long errors = stats.total.errors;
+                long count = stats.total.getCount();
+                row.put("step", entry.getKey());
+                row.put("count", count);
+                row.put("errors", errors);
+                row.put("errorRate", count == 0 ? 0 : (double) errors / count);
+                row.put("p50Ms", histogram.getPercentileMillis(0.50));
+                row.put("p95Ms", histogram.getPercentileMillis(0.95));
+                row.put("p99Ms", histogram.getPercentileMillis(0.99));
+                row.put("maxMs", histogram.getMaxMillis());
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    private static String csv(String value) {
+        return value.contains(",") ? "\"" + value.replace("\"", "\"\"") + "\"" : value;
+    }
+
+    /**
+     * Run-wide and current-interval numbers of one step, guarded by the StepStats instance
+     */
+    private static class StepStats {
+        private final Counts total = new Counts();
+        private Counts interval = new Counts();
+    }
+
+    /**
+     * Latency and error counts over a period. Errors without a latency are counted but not in the histogram.
+     */
+    private static class Counts {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private long errors;
+        private long unmeasured;
+
+        void record(long nanos, boolean success) {
+            histogram.record(nanos);
+            if (!success) {
+                errors++;
+            }
+        }
+
+        void recordUnmeasuredError() {
+            errors++;
+            unmeasured++;
+        }
+
+        long getCount() {
+            return histogram.getCount() + unmeasured;
+        }
+    }
+}
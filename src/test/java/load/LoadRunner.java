@@ -0,0 +1,232 @@
+package load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import utils.CSVUtils;
+import utils.Config;
+import utils.ExecutionProfile;
+import utils.Log;
+import utils.PlaywrightManager;
+import utils.SalesforceStandIn;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Puts load on an org, or on the Salesforce stand-in, by replaying a page object journey with concurrent
+ * virtual users. Users start evenly over the ramp-up phase, loop through the journey during steady state
+ * and stop one by one over the ramp-down phase, each after finishing its current journey.
+ * <p>
+ * Settings: load.users (default 5), load.journey (login or create_account, the default),
+ * load.ramp.up.seconds (30), load.steady.seconds (60), load.ramp.down.seconds (15), load.think.ms (1000),
+ * load.interval.seconds (5), load.data (CSV file under testData with URL, Username, Password and the account
+ * fields, default AccountData.csv; users take its rows in turn), load.output (default target/load) and
+ * load.stop.timeout.seconds (120), how long users still running after the ramp-down get to finish their
+ * current call before the drivers are closed. A user stops early after load.max.consecutive.failures (5)
+ * iterations in a row that could not get a browser context.
+ * <p>
+ * Failed steps count as errors in the results, so performance budgets only warn during a load run
+ * unless perf.budgets.enforce is set explicitly.
+ * <p>
+ * Writes timeseries.csv with one line per step and interval, and summary.json with journeys per minute
+ * in steady state and the per-step percentiles and error rates of the whole run.
+ */
+public class LoadRunner {
+    private final Journey journey;
+    private final int users;
+    private final long rampUpSeconds;
+    private final long steadySeconds;
+    private final long rampDownSeconds;
+    private final long thinkMillis;
+    private final long intervalSeconds;
+    private final List<Map<String, String>> data;
+    private final Path outputDir;
+
+    /**
+     * Phase of the load profile at a point in time
+     */
+    enum Phase {
+        RAMP_UP, STEADY, RAMP_DOWN
+    }
+
+    public LoadRunner(Journey journey, int users, long rampUpSeconds, long steadySeconds, long rampDownSeconds,
+                      long thinkMillis, long intervalSeconds, List<Map<String, String>> data, Path outputDir) {
+        if (data.isEmpty()) {
+            throw new IllegalArgumentException("Load test data has no rows");
+        }
+        this.journey = journey;
+        this.users = Math.max(1, users);
+        this.rampUpSeconds = Math.max(0, rampUpSeconds);
+        this.steadySeconds = Math.max(0, steadySeconds);
+        this.rampDownSeconds = Math.max(0, rampDownSeconds);
+        this.thinkMillis = Math.max(0, thinkMillis);
+        this.intervalSeconds = Math.max(1, intervalSeconds);
+        this.data = data;
+        this.outputDir = outputDir;
+    }
+
+    /**
+     * Builds a runner from the load.* settings
+     */
+    public static LoadRunner fromConfig() {
+        String dataFile = Config.get("load.data", "AccountData.csv");
+        List<Map<String, String>> rows = new ArrayList<>();
+        Iterator<Object[]> iterator = CSVUtils.getTestDataIteratorFromCSV(dataFile);
+        while (iterator.hasNext()) {
+            @SuppressWarnings("unchecked")
+            Map<String, String> row = (Map<String, String>) iterator.next()[0];
+            rows.add(row);
+        }
+        return new LoadRunner(
+                Journey.valueOf(Config.get("load.journey", "create_account").toUpperCase()),
+                Config.getInt("load.users", 5),
+                Config.getInt("load.ramp.up.seconds", 30),
+                Config.getInt("load.steady.seconds", 60),
+                Config.getInt("load.ramp.down.seconds", 15),
+                Config.getInt("load.think.ms", 1000),
+                Config.getInt("load.interval.seconds", 5),
+                rows,
+                Paths.get(Config.get("load.output", "target/load")));
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Load is generated headless and without slowMo unless a profile is chosen explicitly
+        if (Config.get("execution.profile", null) == null) {
+            System.setProperty("execution.profile", "throughput");
+        }
+        // A step over its budget is a latency sample, not an error
+        if (Config.get("perf.budgets.enforce", null) == null) {
+            System.setProperty("perf.budgets.enforce", "false");
+        }
+        if (SalesforceStandIn.isEnabled()) {
+            SalesforceStandIn.start();
+        }
+        try {
+            fromConfig().run();
+        } finally {
+            if (SalesforceStandIn.getBaseUrl() != null) {
+                Log.info(SalesforceStandIn.getStats());
+                SalesforceStandIn.stop();
+            }
+        }
+    }
+
+    /**
+     * Runs the load profile to the end and writes the time series and summary
+     */
+    public void run() throws IOException, InterruptedException {
+        ExecutionProfile profile = ExecutionProfile.current();
+        PlaywrightManager.setLaunchOptions(profile.getLaunchOptions());
+        // Every virtual user keeps its driver for the whole run
+        PlaywrightManager.setMaxWorkers(users);
+        Log.info("Starting load run: journey {}, {} users, ramp-up {} s, steady {} s, ramp-down {} s, profile {}",
+                journey, users, rampUpSeconds, steadySeconds, rampDownSeconds, profile);
+
+        LoadMetrics metrics = new LoadMetrics(journey.getStepNames(), outputDir.resolve("timeseries.csv"));
+        AtomicInteger activeUsers = new AtomicInteger();
+        long start = System.nanoTime();
+        long steadyEnd = start + TimeUnit.SECONDS.toNanos(rampUpSeconds + steadySeconds);
+
+        List<VirtualUser> virtualUsers = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            // Users start evenly over ramp-up and stop in reverse order over ramp-down
+            long startAt = start + TimeUnit.SECONDS.toNanos(rampUpSeconds) * i / users;
+            long stopAt = steadyEnd + TimeUnit.SECONDS.toNanos(rampDownSeconds) * (users - i) / users;
+            VirtualUser user = new VirtualUser(String.format("VU-%03d", i + 1), journey, data.get(i % data.size()),
+                    metrics, activeUsers, startAt, stopAt, thinkMillis);
+            Thread thread = new Thread(user, user.getName());
+            // A user stuck in a driver call must not keep the JVM alive
+            thread.setDaemon(true);
+            virtualUsers.add(user);
+            threads.add(thread);
+            thread.start();
+        }
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "load-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(() -> sample(metrics, start, activeUsers.get()),
+                intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+
+        // Users finish their current journey after the ramp-down; give them one more minute
+        long deadline = steadyEnd + TimeUnit.SECONDS.toNanos(rampDownSeconds + 60);
+        for (int i = 0; i < threads.size(); i++) {
+            threads.get(i).join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            if (threads.get(i).isAlive()) {
+                Log.warn("Virtual user {} did not finish in time", virtualUsers.get(i).getName());
+                virtualUsers.get(i).stop();
+            }
+        }
+        // Late users stop after their current call; their drivers cannot be closed under them
+        long stopDeadline = System.nanoTime()
+                + TimeUnit.SECONDS.toNanos(Config.getInt("load.stop.timeout.seconds", 120));
+        int stuck = 0;
+        for (int i = 0; i < threads.size(); i++) {
+            threads.get(i).join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(stopDeadline - System.nanoTime())));
+            if (threads.get(i).isAlive()) {
+                Log.warn("Virtual user {} is still running", virtualUsers.get(i).getName());
+                stuck++;
+            }
+        }
+        sampler.shutdown();
+        sampler.awaitTermination(10, TimeUnit.SECONDS);
+        sample(metrics, start, activeUsers.get());
+        metrics.close();
+        if (stuck == 0) {
+            PlaywrightManager.closeAll();
+        } else {
+            Log.warn("Leaving Playwright drivers open for {} virtual users still running; they end with the JVM",
+                    stuck);
+        }
+        writeSummary(metrics, (System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    private void sample(LoadMetrics metrics, long start, int activeUsers) {
+        long elapsed = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start);
+        Phase phase = elapsed < rampUpSeconds ? Phase.RAMP_UP
+                : elapsed < rampUpSeconds + steadySeconds ? Phase.STEADY : Phase.RAMP_DOWN;
+        try {
+            metrics.sample(elapsed, phase, activeUsers);
+        } catch (IOException e) {
+            Log.warn("Could not write load time series: " + e.getMessage());
+        }
+    }
+
+    private void writeSummary(LoadMetrics metrics, double durationSeconds) throws IOException {
+        List<Map<String, Object>> steps = metrics.getSummary();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("journey", journey.toString());
+        summary.put("users", users);
+        summary.put("rampUpSeconds", rampUpSeconds);
+        summary.put("steadySeconds", steadySeconds);
+        summary.put("rampDownSeconds", rampDownSeconds);
+        summary.put("durationSeconds", durationSeconds);
+        summary.put("steadyJourneysPerMinute", metrics.getSteadyThroughput());
+        summary.put("steps", steps);
+        Path summaryPath = outputDir.resolve("summary.json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(summaryPath.toFile(), summary);
+
+        Log.info("Load run finished in {} s, steady state: {} journeys per minute",
+                Math.round(durationSeconds), String.format("%.1f", metrics.getSteadyThroughput()));
+        for (Map<String, Object> step : steps) {
+            Log.info("  {} - count {}, errors {} ({}%), p50 {} ms, p95 {} ms, p99 {} ms, max {} ms",
+                    step.get("step"), step.get("count"), step.get("errors"),
+                    String.format("%.1f", (double) step.get("errorRate") * 100), step.get("p50Ms"),
+                    step.get("p95Ms"), step.get("p99Ms"), step.get("maxMs"));
+        }
+        Log.info("Wrote load time series and summary to {}", outputDir);
+    }
+}
@@ -0,0 +1,180 @@
+package load;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import pages.AccountPage;
+import pages.LoginPage;
+import utils.BrowserPool;
+import utils.BrowserScheduler;
+import utils.Config;
+import utils.ExecutionProfile;
+import utils.Log;
+import utils.PlaywrightManager;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One simulated user replaying a journey in a loop on its own thread. The Playwright sync API is
+ * thread-confined, so the user drives its own browser pool from PlaywrightManager, or shares a browser
+ * through the BrowserScheduler with -Dbrowser.multiplex=true. It gets a fresh context, and with it
+ * a fresh session, for every iteration. An iteration that cannot get a context counts as a failed journey;
+ * the user stops only after load.max.consecutive.failures (default 5) of them in a row.
+ */
+class VirtualUser implements Runnable {
+    private static final int MAX_CONSECUTIVE_FAILURES = Math.max(1, Config.getInt("load.max.consecutive.failures", 5));
+
+    private final String name;
+    private final Journey journey;
+    private final Map<String, String> data;
+    private final LoadMetrics metrics;
+    private final AtomicInteger activeUsers;
+    private final long startNanos;
+    private final long stopNanos;
+    private final long thinkMillis;
+    private volatile boolean stopped;
+    private int iteration;
+    private LoginPage loginPage;
+    private AccountPage accountPage;
+
+    VirtualUser(String name, Journey journey, Map<String, String> data, LoadMetrics metrics,
+                AtomicInteger activeUsers, long startNanos, long stopNanos, long thinkMillis) {
+        this.name = name;
+        this.journey = journey;
+        this.data = data;
+        this.metrics = metrics;
+        this.activeUsers = activeUsers;
+        this.startNanos = startNanos;
+        this.stopNanos = stopNanos;
+        this.thinkMillis = thinkMillis;
+    }
+
+    @Override
+    public void run() {
+        if (!sleepUntil(startNanos)) {
+            return;
+        }
+        activeUsers.incrementAndGet();
+        Log.info("Virtual user {} started", name);
+        if (BrowserScheduler.isEnabled()) {
+            BrowserScheduler.attach();
+        }
+        try {
+            BrowserPool pool = PlaywrightManager.getBrowserPool();
+            int consecutiveFailures = 0;
+            while (!stopped && System.nanoTime() < stopNanos) {
+                iteration++;
+                Log.startTest(name, Integer.toString(iteration));
+                try {
+                    runIteration(pool);
+                    consecutiveFailures = 0;
+                } catch (RuntimeException e) {
+                    metrics.recordError(LoadMetrics.JOURNEY);
+                    consecutiveFailures++;
+                    Log.warn("Virtual user " + name + " could not run iteration " + iteration + ": " + e.getMessage());
+                    if (consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
+                        Log.error("Virtual user " + name + " stopped after " + consecutiveFailures
+                                + " failed iterations in a row", e);
+                        break;
+                    }
+                } finally {
+                    Log.endTest();
+                }
+                if (thinkMillis > 0 && !sleepUntil(Math.min(stopNanos,
+                        System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(thinkMillis)))) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            // The driver could not be started, so this user cannot continue
+            metrics.recordError(LoadMetrics.JOURNEY);
+            Log.error("Virtual user " + name + " stopped: " + e.getMessage(), e);
+        } finally {
+            BrowserScheduler.detach();
+            PlaywrightManager.release();
+            activeUsers.decrementAndGet();
+            Log.info("Virtual user {} finished after {} iterations", name, iteration);
+        }
+    }
+
+    /**
+     * Asks the user to stop after its current journey
+     */
+    void stop() {
+        stopped = true;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getIteration() {
+        return iteration;
+    }
+
+    LoginPage getLoginPage() {
+        return loginPage;
+    }
+
+    AccountPage getAccountPage() {
+        return accountPage;
+    }
+
+    /**
+     * Runs one journey in a fresh context. Throws when the context or its page cannot be created.
+     */
+    private void runIteration(BrowserPool pool) {
+        BrowserContext context = BrowserScheduler.call(
+                () -> pool.newContext(ExecutionProfile.current().getContextOptions()));
+        try {
+            Page page = BrowserScheduler.call(context::newPage);
+            loginPage = new LoginPage(page);
+            accountPage = new AccountPage(page);
+            runJourney();
+        } finally {
+            BrowserScheduler.run(() -> pool.release(context));
+        }
+    }
+
+    /**
+     * Runs the journey's steps in order, stopping at the first failed step
+     */
+    private void runJourney() {
+        long journeyStart = System.nanoTime();
+        boolean success = true;
+        for (Journey.Step step : journey.steps()) {
+            long stepStart = System.nanoTime();
+            try {
+                success = step.run(this, data);
+                if (!success) {
+                    Log.warn("Step '{}' did not reach its expected state", step.getName());
+                }
+            } catch (RuntimeException | AssertionError e) {
+                Log.warn("Step '{}' failed: {}", step.getName(), e.getMessage());
+                success = false;
+            }
+            metrics.record(step.getName(), System.nanoTime() - stepStart, success);
+            if (!success) {
+                break;
+            }
+        }
+        metrics.record(LoadMetrics.JOURNEY, System.nanoTime() - journeyStart, success);
+    }
+
+    /**
+     * Sleeps until the given System.nanoTime value, returning false when stopped or interrupted first
+     */
+    private boolean sleepUntil(long nanos) {
+        long remaining;
+        while (!stopped && (remaining = nanos - System.nanoTime()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(200)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return !stopped;
+    }
+}
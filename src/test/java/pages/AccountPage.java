@@ -3,6 +3,12 @@ package pages;
 import com.microsoft.playwright.Page;
 import utils.Log;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Page Object Model for Salesforce Account Page
  */
@@ -14,9 +20,7 @@ public class AccountPage extends BasePage {
     private static final String NEW_BUTTON = "div[title='New']";
     private static final String ACCOUNT_NAME_INPUT = "input[placeholder='Account Name']";
     private static final String ACCOUNT_TYPE_DROPDOWN = "lightning-combobox[data-field-name='Type']";
-    private static final String ACCOUNT_TYPE_OPTION = "lightning-base-combobox-item[data-value='Customer - Direct']";
     private static final String ACCOUNT_INDUSTRY_DROPDOWN = "lightning-combobox[data-field-name='Industry']";
-    private static final String ACCOUNT_INDUSTRY_OPTION = "lightning-base-combobox-item[data-value='Technology']";
     private static final String ACCOUNT_PHONE_INPUT = "input[placeholder='Phone']";
     private static final String ACCOUNT_WEBSITE_INPUT = "input[placeholder='Website']";
     private static final String SAVE_BUTTON = "button[name='SaveEdit']";
@@ -29,30 +33,71 @@ public class AccountPage extends BasePage {
     private static final String ACCOUNT_INDUSTRY_DISPLAY = "span[data-field-name='Industry']";
     private static final String ACCOUNT_PHONE_DISPLAY = "span[data-field-name='Phone']";
     private static final String ACCOUNT_WEBSITE_DISPLAY = "span[data-field-name='Website']";
+    private static final String FIELD_ERROR = "[class*='slds-has-error']";
+
+    // Account fields, used as names when filling the form and reading the detail page
+    private static final String FIELD_NAME = "Name";
+    private static final String FIELD_TYPE = "Type";
+    private static final String FIELD_INDUSTRY = "Industry";
+    private static final String FIELD_PHONE = "Phone";
+    private static final String FIELD_WEBSITE = "Website";
+    private static final Map<String, String> DETAIL_FIELDS = new LinkedHashMap<>();
+
+    static {
+        DETAIL_FIELDS.put(FIELD_NAME, ACCOUNT_NAME_DISPLAY);
+        DETAIL_FIELDS.put(FIELD_TYPE, ACCOUNT_TYPE_DISPLAY);
+        DETAIL_FIELDS.put(FIELD_INDUSTRY, ACCOUNT_INDUSTRY_DISPLAY);
+        DETAIL_FIELDS.put(FIELD_PHONE, ACCOUNT_PHONE_DISPLAY);
+        DETAIL_FIELDS.put(FIELD_WEBSITE, ACCOUNT_WEBSITE_DISPLAY);
+    }
+
+    // Ready conditions for the account flows
+    private static final ReadinessStrategy LIST_VIEW_READY =
+            ReadinessStrategy.element(NEW_BUTTON).and(ReadinessStrategy.spinnersGone());
+    // Direct navigation must land on the list, not on a login redirect
+    private static final ReadinessStrategy LIST_URL_READY =
+            ReadinessStrategy.urlMatches("/lightning/o/Account/list").and(LIST_VIEW_READY);
+    private static final ReadinessStrategy FORM_READY =
+            ReadinessStrategy.element(ACCOUNT_NAME_INPUT).and(ReadinessStrategy.spinnersGone());
+    private static final ReadinessStrategy SAVE_RESULT_READY =
+            ReadinessStrategy.anyElement(ACCOUNT_DETAIL_TITLE, SUCCESS_MESSAGE, FIELD_ERROR).orDomContentLoaded();
+
+    // Performance budgets of user-facing steps
+    private static final PerformanceBudget ACCOUNTS_LIST_BUDGET = PerformanceBudget.warn("Accounts list load", 5000);
+    private static final PerformanceBudget ACCOUNT_SAVE_BUDGET = PerformanceBudget.fail("Account save", 3000);
+
+    // Lightning icon sprites used in the record header and list view buttons
+    private static final String SLDS_ICONS = "**/assets/icons/**";
 
     public AccountPage(Page page) {
         super(page);
     }
 
+    @Override
+    public List<String> getAllowedResources() {
+        return Collections.singletonList(SLDS_ICONS);
+    }
+
     /**
      * Navigate to Accounts tab
      */
     public void navigateToAccounts() {
         Log.info("Navigating to Accounts tab");
-        try {
-            // Click on App Launcher if visible
-            if (isVisible(APP_LAUNCHER)) {
-                click(APP_LAUNCHER);
-                waitForElement(ACCOUNTS_TAB);
+        measureStep(ACCOUNTS_LIST_BUDGET, () -> {
+            try {
+                // Click on App Launcher if visible
+                if (isVisible(APP_LAUNCHER)) {
+                    click(APP_LAUNCHER);
+                }
+                click(ACCOUNTS_TAB);
+                waitForPageLoad(LIST_VIEW_READY);
+            } catch (Exception e) {
+                Log.error("Error navigating to Accounts: " + e.getMessage());
+                // Try direct navigation
+                navigate("lightning/o/Account/list");
+                waitForPageLoad(LIST_URL_READY);
             }
-            click(ACCOUNTS_TAB);
-            waitForPageLoad();
-        } catch (Exception e) {
-            Log.error("Error navigating to Accounts: " + e.getMessage());
-            // Try direct navigation
-            page.navigate("lightning/o/Account/list");
-            waitForPageLoad();
-        }
+        });
     }
 
     /**
@@ -60,16 +105,15 @@ public class AccountPage extends BasePage {
      */
     public void clickNewButton() {
         Log.info("Clicking New button to create new account");
-        waitForElement(NEW_BUTTON);
         click(NEW_BUTTON);
-        waitForPageLoad();
+        waitForPageLoad(FORM_READY);
     }
 
     /**
      * Enter account name
      */
     public void enterAccountName(String accountName) {
-        Log.info("Entering account name: " + accountName);
+        Log.info("Entering account name: {}", accountName);
         fill(ACCOUNT_NAME_INPUT, accountName);
     }
 
@@ -77,27 +121,23 @@ public class AccountPage extends BasePage {
      * Select account type
      */
     public void selectAccountType(String accountType) {
-        Log.info("Selecting account type: " + accountType);
-        click(ACCOUNT_TYPE_DROPDOWN);
-        waitForElement(ACCOUNT_TYPE_OPTION);
-        click(ACCOUNT_TYPE_OPTION);
+        Log.info("Selecting account type: {}", accountType);
+        selectComboboxOption(ACCOUNT_TYPE_DROPDOWN, accountType);
     }
 
     /**
      * Select account industry
      */
     public void selectAccountIndustry(String industry) {
-        Log.info("Selecting account industry: " + industry);
-        click(ACCOUNT_INDUSTRY_DROPDOWN);
-        waitForElement(ACCOUNT_INDUSTRY_OPTION);
-        click(ACCOUNT_INDUSTRY_OPTION);
+        Log.info("Selecting account industry: {}", industry);
+        selectComboboxOption(ACCOUNT_INDUSTRY_DROPDOWN, industry);
     }
 
     /**
      * Enter account phone
      */
     public void enterAccountPhone(String phone) {
-        Log.info("Entering account phone: " + phone);
+        Log.info("Entering account phone: {}", phone);
         fill(ACCOUNT_PHONE_INPUT, phone);
     }
 
@@ -105,7 +145,7 @@ public class AccountPage extends BasePage {
      * Enter account website
      */
     public void enterAccountWebsite(String website) {
-        Log.info("Entering account website: " + website);
+        Log.info("Entering account website: {}", website);
         fill(ACCOUNT_WEBSITE_INPUT, website);
     }
 
@@ -114,8 +154,11 @@ public class AccountPage extends BasePage {
      */
     public void clickSaveButton() {
         Log.info("Clicking Save button");
-        click(SAVE_BUTTON);
-        waitForPageLoad();
+        // Measured until the record header, toast or field error is shown
+        measureStep(ACCOUNT_SAVE_BUDGET, () -> {
+            click(SAVE_BUTTON);
+            waitForPageLoad(SAVE_RESULT_READY);
+        });
     }
 
     /**
@@ -124,7 +167,7 @@ public class AccountPage extends BasePage {
     public void clickSaveAndNewButton() {
         Log.info("Clicking Save and New button");
         click(SAVE_AND_NEW_BUTTON);
-        waitForPageLoad();
+        waitForPageLoad(FORM_READY);
     }
 
     /**
@@ -136,15 +179,17 @@ public class AccountPage extends BasePage {
     }
 
     /**
-     * Create new account with all details
+     * Create new account with all details. Text inputs are filled in one batch,
+     * then the type and industry comboboxes are set to the requested values.
      */
     public void createAccount(String accountName, String accountType, String industry, String phone, String website) {
-        Log.info("Creating new account with name: " + accountName);
-        enterAccountName(accountName);
-        selectAccountType(accountType);
-        selectAccountIndustry(industry);
-        enterAccountPhone(phone);
-        enterAccountWebsite(website);
+        Log.info("Creating new account with name: {}", accountName);
+        fillForm(Arrays.asList(
+                FormField.text(FIELD_NAME, ACCOUNT_NAME_INPUT, accountName),
+                FormField.combobox(FIELD_TYPE, ACCOUNT_TYPE_DROPDOWN, accountType),
+                FormField.combobox(FIELD_INDUSTRY, ACCOUNT_INDUSTRY_DROPDOWN, industry),
+                FormField.text(FIELD_PHONE, ACCOUNT_PHONE_INPUT, phone),
+                FormField.text(FIELD_WEBSITE, ACCOUNT_WEBSITE_INPUT, website)));
         clickSaveButton();
     }
 
@@ -163,15 +208,25 @@ public class AccountPage extends BasePage {
         }
     }
 
+    /**
+     * Read all account detail fields from the detail page in one call.
+     * Fields that are not visible come back as empty strings.
+     */
+    public Map<String, String> getAccountDetails() {
+        Log.info("Getting account details from detail page");
+        Map<String, String> details = new LinkedHashMap<>();
+        for (Map.Entry<String, FieldValue> field : readFields(DETAIL_FIELDS).entrySet()) {
+            details.put(field.getKey(), field.getValue().getVisibleText());
+        }
+        return details;
+    }
+
     /**
      * Get account name from detail page
      */
     public String getAccountName() {
         Log.info("Getting account name from detail page");
-        if (isVisible(ACCOUNT_NAME_DISPLAY)) {
-            return getText(ACCOUNT_NAME_DISPLAY);
-        }
-        return "";
+        return getDetailField(FIELD_NAME);
     }
 
     /**
@@ -179,10 +234,7 @@ public class AccountPage extends BasePage {
      */
     public String getAccountType() {
         Log.info("Getting account type from detail page");
-        if (isVisible(ACCOUNT_TYPE_DISPLAY)) {
-            return getText(ACCOUNT_TYPE_DISPLAY);
-        }
-        return "";
+        return getDetailField(FIELD_TYPE);
     }
 
     /**
@@ -190,10 +242,7 @@ public class AccountPage extends BasePage {
      */
     public String getAccountIndustry() {
         Log.info("Getting account industry from detail page");
-        if (isVisible(ACCOUNT_INDUSTRY_DISPLAY)) {
-            return getText(ACCOUNT_INDUSTRY_DISPLAY);
-        }
-        return "";
+        return getDetailField(FIELD_INDUSTRY);
     }
 
     /**
@@ -201,10 +250,7 @@ public class AccountPage extends BasePage {
      */
     public String getAccountPhone() {
         Log.info("Getting account phone from detail page");
-        if (isVisible(ACCOUNT_PHONE_DISPLAY)) {
-            return getText(ACCOUNT_PHONE_DISPLAY);
-        }
-        return "";
+        return getDetailField(FIELD_PHONE);
     }
 
     /**
@@ -212,10 +258,31 @@ public class AccountPage extends BasePage {
      */
     public String getAccountWebsite() {
         Log.info("Getting account website from detail page");
-        if (isVisible(ACCOUNT_WEBSITE_DISPLAY)) {
-            return getText(ACCOUNT_WEBSITE_DISPLAY);
+        return getDetailField(FIELD_WEBSITE);
+    }
+
+    /**
+     * Compare the detail page with the expected values.
+     * Returns the mismatched fields mapped to a description, empty when everything matches.
+     */
+    public Map<String, String> findAccountDetailMismatches(String expectedName, String expectedType, String expectedIndustry,
+                                                           String expectedPhone, String expectedWebsite) {
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put(FIELD_NAME, expectedName);
+        expected.put(FIELD_TYPE, expectedType);
+        expected.put(FIELD_INDUSTRY, expectedIndustry);
+        expected.put(FIELD_PHONE, expectedPhone);
+        expected.put(FIELD_WEBSITE, expectedWebsite);
+
+        Map<String, FieldValue> actual = readFields(DETAIL_FIELDS);
+        Map<String, String> mismatches = new LinkedHashMap<>();
+        for (Map.Entry<String, String> field : expected.entrySet()) {
+            FieldValue value = actual.get(field.getKey());
+            if (!value.getVisibleText().equals(field.getValue())) {
+                mismatches.put(field.getKey(), "expected '" + field.getValue() + "' but was " + value);
+            }
         }
-        return "";
+        return mismatches;
     }
 
     /**
@@ -224,15 +291,17 @@ public class AccountPage extends BasePage {
     public boolean verifyAccountDetails(String expectedName, String expectedType, String expectedIndustry, 
                                       String expectedPhone, String expectedWebsite) {
         Log.info("Verifying account details");
-        boolean nameMatch = getAccountName().equals(expectedName);
-        boolean typeMatch = getAccountType().equals(expectedType);
-        boolean industryMatch = getAccountIndustry().equals(expectedIndustry);
-        boolean phoneMatch = getAccountPhone().equals(expectedPhone);
-        boolean websiteMatch = getAccountWebsite().equals(expectedWebsite);
-        
-        Log.info("Account verification - Name: " + nameMatch + ", Type: " + typeMatch + 
-                ", Industry: " + industryMatch + ", Phone: " + phoneMatch + ", Website: " + websiteMatch);
-        
-        return nameMatch && typeMatch && industryMatch && phoneMatch && websiteMatch;
+        Map<String, String> mismatches = findAccountDetailMismatches(expectedName, expectedType, expectedIndustry,
+                expectedPhone, expectedWebsite);
+        if (mismatches.isEmpty()) {
+            Log.info("Account verification - all fields match");
+        } else {
+            Log.info("Account verification - mismatched fields: {}", mismatches);
+        }
+        return mismatches.isEmpty();
+    }
+
+    private String getDetailField(String field) {
+        return readFields(Collections.singletonMap(field, DETAIL_FIELDS.get(field))).get(field).getVisibleText();
     }
 }
@@ -1,54 +1,424 @@
 package pages;
 
 import com.microsoft.playwright.*;
-import com.microsoft.playwright.options.LoadState;
+import com.microsoft.playwright.options.WaitForSelectorState;
+import com.microsoft.playwright.options.WaitUntilState;
+import utils.ActionMetrics;
+import utils.BrowserScheduler;
+import utils.Config;
 import utils.Log;
+import utils.SalesforceStandIn;
+import utils.ScreenshotPipeline;
+import utils.TraceRecorder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Base page class containing common functionality for all page objects
  */
 public class BasePage {
+    private static final double ACTION_TIMEOUT = 10000;
+    // State checks while polling on a shared browser must answer at once instead of auto-waiting
+    private static final double CHECK_TIMEOUT = 1;
+
+    // What an element must be before an action on it can run without auto-waiting
+    private static final Predicate<Locator> ATTACHED = l -> l.count() > 0;
+    private static final Predicate<Locator> CLICKABLE = l -> l.isVisible()
+            && l.isEnabled(new Locator.IsEnabledOptions().setTimeout(CHECK_TIMEOUT));
+    private static final Predicate<Locator> EDITABLE = l -> l.isVisible()
+            && l.isEditable(new Locator.IsEditableOptions().setTimeout(CHECK_TIMEOUT));
+
+    private static final String COMBOBOX_OPTION = "lightning-base-combobox-item[data-value='%s']";
+
+    // Finds the first element matching a selector, looking inside shadow roots too
+    private static final String FIND_DEEP = "const find = (root, selector) => {"
+            + "  const hit = root.querySelector(selector);"
+            + "  if (hit) return hit;"
+            + "  for (const host of root.querySelectorAll('*')) {"
+            + "    if (host.shadowRoot) { const inner = find(host.shadowRoot, selector); if (inner) return inner; }"
+            + "  }"
+            + "  return null;"
+            + "};";
+
+    // Reads text and visibility of several selectors in one round trip
+    private static final String READ_FIELDS_SCRIPT = "fields => {"
+            + FIND_DEEP
+            + "  const result = {};"
+            + "  for (const [name, selector] of Object.entries(fields)) {"
+            + "    const el = find(document, selector);"
+            + "    const visible = !!el && getComputedStyle(el).visibility !== 'hidden'"
+            + "        && !!(el.offsetWidth || el.offsetHeight || el.getClientRects().length);"
+            + "    result[name] = { text: el ? el.textContent : null, visible: visible };"
+            + "  }"
+            + "  return result;"
+            + "}";
+
+    // Sets several input values in one round trip, firing the events a user's typing would.
+    // Only visible, enabled, editable and uncovered text inputs and textareas are set here; anything else is
+    // returned as missing so it goes through fill() and Playwright's actionability checks.
+    // Returns the time taken per field and the names of fields that were not set.
+    private static final String FILL_FIELDS_SCRIPT = "fields => {"
+            + FIND_DEEP
+            + "  const nonText = ['checkbox', 'radio', 'file', 'button', 'submit', 'image', 'reset', 'hidden'];"
+            + "  const fillable = el => {"
+            + "    const text = el instanceof HTMLTextAreaElement"
+            + "        || (el instanceof HTMLInputElement && !nonText.includes(el.type));"
+            + "    if (!text || el.disabled || el.readOnly || getComputedStyle(el).visibility === 'hidden') return false;"
+            + "    const r = el.getBoundingClientRect();"
+            + "    if (!r.width || !r.height) return false;"
+            + "    const hit = el.getRootNode().elementFromPoint(r.left + r.width / 2, r.top + r.height / 2);"
+            + "    return !!hit && (hit === el || el.contains(hit));"
+            + "  };"
+            + "  const timings = {};"
+            + "  const missing = [];"
+            + "  for (const field of fields) {"
+            + "    const start = performance.now();"
+            + "    const el = find(document, field.selector);"
+            + "    if (!el || !fillable(el)) { missing.push(field.name); continue; }"
+            + "    el.focus();"
+            + "    const prototype = el instanceof HTMLTextAreaElement ? HTMLTextAreaElement.prototype"
+            + "        : HTMLInputElement.prototype;"
+            + "    Object.getOwnPropertyDescriptor(prototype, 'value').set.call(el, field.value);"
+            + "    el.dispatchEvent(new Event('input', { bubbles: true, composed: true }));"
+            + "    el.dispatchEvent(new Event('change', { bubbles: true, composed: true }));"
+            + "    el.blur();"
+            + "    timings[field.name] = performance.now() - start;"
+            + "  }"
+            + "  return { timings: timings, missing: missing };"
+            + "}";
+
+    // Marks the start of a step in the current document's timeline
+    private static final String PERF_MARK_SCRIPT = "() => {"
+            + "  performance.setResourceTimingBufferSize(2000);"
+            + "  return { since: performance.now(), origin: performance.timeOrigin };"
+            + "}";
+
+    // Collects the timing entries recorded since the mark. When the step loaded a new document, everything
+    // since its navigation start counts, including Navigation Timing and LCP.
+    private static final String PERF_CAPTURE_SCRIPT = "async mark => {"
+            + "  const newDocument = performance.timeOrigin !== mark.origin;"
+            + "  const from = newDocument ? 0 : mark.since;"
+            + "  const result = { newDocument: newDocument };"
+            + "  const nav = performance.getEntriesByType('navigation')[0];"
+            + "  if (newDocument && nav) {"
+            + "    result.navigation = { ttfb: nav.responseStart, domContentLoaded: nav.domContentLoadedEventEnd,"
+            + "        load: nav.loadEventEnd, duration: nav.duration, transferSize: nav.transferSize };"
+            + "  }"
+            + "  const resources = performance.getEntriesByType('resource').filter(r => r.startTime >= from);"
+            + "  result.resourceCount = resources.length;"
+            + "  result.resourceTransferSize = resources.reduce((sum, r) => sum + (r.transferSize || 0), 0);"
+            + "  result.slowestResources = resources.sort((a, b) => b.duration - a.duration).slice(0, 5)"
+            + "      .map(r => ({ name: r.name, duration: r.duration }));"
+            + "  result.paint = {};"
+            + "  for (const p of performance.getEntriesByType('paint')) {"
+            + "    if (p.startTime >= from) result.paint[p.name] = p.startTime;"
+            + "  }"
+            + "  result.lcp = await new Promise(resolve => {"
+            + "    let last = null;"
+            + "    try {"
+            + "      const observer = new PerformanceObserver(list => { last = list.getEntries().pop() || last; });"
+            + "      observer.observe({ type: 'largest-contentful-paint', buffered: true });"
+            + "      setTimeout(() => {"
+            + "        last = observer.takeRecords().pop() || last;"
+            + "        observer.disconnect();"
+            + "        resolve(last && last.startTime >= from ? last.startTime : null);"
+            + "      }, 50);"
+            + "    } catch (e) { resolve(null); }"
+            + "  });"
+            + "  return result;"
+            + "}";
+
     protected Page page;
     protected BrowserContext context;
+    private final Map<String, Locator> locators = new HashMap<>();
 
     public BasePage(Page page) {
         this.page = page;
         this.context = page.context();
     }
 
+    /**
+     * URL glob patterns this page needs even when the network policy blocks their resource type
+     */
+    public List<String> getAllowedResources() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Get the reusable locator for a selector. Each selector is resolved once per page object;
+     * like the Page methods it replaces, it targets the first matching element.
+     */
+    protected Locator locator(String selector) {
+        return locators.computeIfAbsent(selector, s -> page.locator(s).first());
+    }
+
+    /**
+     * Run a page action, recording its latency under this page class, the action name and the selector.
+     * On a shared browser the action holds the browser's baton while it runs.
+     */
+    protected <T> T timed(String action, String selector, Supplier<T> body) {
+        return measured(action, selector, () -> BrowserScheduler.call(body));
+    }
+
+    /**
+     * Run a page action without a result, recording its latency
+     */
+    protected void timed(String action, String selector, Runnable body) {
+        timed(action, selector, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run a page action on an element, recording its latency. On a shared browser the element is first
+     * polled until it is ready for the action, e.g. visible and enabled for a click, so Playwright's
+     * auto-wait inside the action holds the baton only briefly.
+     */
+    private <T> T timedOnElement(String action, String selector, Predicate<Locator> ready, Supplier<T> body) {
+        return measured(action, selector, () -> {
+            if (BrowserScheduler.isAttached()) {
+                BrowserScheduler.pollUntil(() -> ready.test(locator(selector)), ACTION_TIMEOUT,
+                        "element " + selector + " to be ready for " + action);
+            }
+            return BrowserScheduler.call(body);
+        });
+    }
+
+    /**
+     * Record the latency of a wait or of several actions, without taking the baton around them.
+     * The driver calls inside take it themselves, so tests sharing the browser can run in between.
+     */
+    private <T> T measured(String action, String selector, Supplier<T> body) {
+        long start = System.nanoTime();
+        try {
+            return body.get();
+        } finally {
+            ActionMetrics.record(getClass().getSimpleName(), action, selector, System.nanoTime() - start);
+            BrowserScheduler.run(TraceRecorder::recordAction);
+        }
+    }
+
+    private void measured(String action, String selector, Runnable body) {
+        measured(action, selector, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run a user-facing step and check it against its performance budget. The step should end by waiting
+     * for its ready condition. Browser timing entries recorded during the step are logged and attached
+     * to the Allure report; an exceeded FAIL budget fails the test. Disable with -Dperf.capture=false.
+     */
+    protected StepPerformance measureStep(PerformanceBudget budget, Runnable step) {
+        if (!Config.getBoolean("perf.capture", true)) {
+            step.run();
+            return null;
+        }
+        Map<String, Object> mark = evaluateTimings(PERF_MARK_SCRIPT, null);
+        long start = System.nanoTime();
+        measured("step", budget.getStep(), step);
+        double durationMillis = (System.nanoTime() - start) / 1_000_000.0;
+        Map<String, Object> browserTimings = mark == null
+                ? Collections.emptyMap() : evaluateTimings(PERF_CAPTURE_SCRIPT, mark);
+
+        StepPerformance performance = new StepPerformance(budget.effective(), durationMillis,
+                browserTimings == null ? Collections.emptyMap() : browserTimings);
+        performance.report();
+        return performance;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> evaluateTimings(String script, Object arg) {
+        try {
+            return (Map<String, Object>) BrowserScheduler.call(() -> page.evaluate(script, arg));
+        } catch (PlaywrightException e) {
+            Log.warn("Could not read performance entries: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Navigate to a URL. While the Salesforce stand-in runs, Salesforce and relative URLs go to it instead.
+     * On a shared browser the call returns once the response is committed; callers wait for their
+     * ready condition afterwards anyway.
+     */
+    protected void navigate(String url) {
+        String target = SalesforceStandIn.resolve(url);
+        Page.NavigateOptions options = new Page.NavigateOptions();
+        if (BrowserScheduler.isAttached()) {
+            options.setWaitUntil(WaitUntilState.COMMIT);
+        }
+        timed("navigate", target, () -> {
+            page.navigate(target, options);
+        });
+    }
+
     /**
      * Wait for element to be visible
      */
     protected void waitForElement(String selector) {
-        Log.info("Waiting for element: " + selector);
-        page.waitForSelector(selector, new Page.WaitForSelectorOptions().setTimeout(10000));
+        Log.info("Waiting for element: {}", selector);
+        measured("waitForElement", selector, () -> {
+            if (BrowserScheduler.isAttached()) {
+                BrowserScheduler.pollUntil(() -> locator(selector).isVisible(), ACTION_TIMEOUT, "element " + selector);
+                return;
+            }
+            locator(selector).waitFor(new Locator.WaitForOptions()
+                    .setState(WaitForSelectorState.VISIBLE)
+                    .setTimeout(ACTION_TIMEOUT));
+        });
     }
 
     /**
-     * Click on element with wait
+     * Click on element, relying on Playwright's auto-wait for actionability
      */
     protected void click(String selector) {
-        Log.info("Clicking on element: " + selector);
-        waitForElement(selector);
-        page.click(selector);
+        Log.info("Clicking on element: {}", selector);
+        timedOnElement("click", selector, CLICKABLE, () -> {
+            click(locator(selector));
+            return null;
+        });
+    }
+
+    /**
+     * Click on element in a single driver call
+     */
+    protected void click(Locator locator) {
+        locator.click(new Locator.ClickOptions().setTimeout(ACTION_TIMEOUT));
     }
 
     /**
      * Fill input field with text
      */
     protected void fill(String selector, String text) {
-        Log.info("Filling field " + selector + " with: " + text);
-        waitForElement(selector);
-        page.fill(selector, text);
+        Log.info("Filling field {} with: {}", selector, text);
+        timedOnElement("fill", selector, EDITABLE, () -> {
+            fill(locator(selector), text);
+            return null;
+        });
+    }
+
+    /**
+     * Fill input field with text in a single driver call
+     */
+    protected void fill(Locator locator, String text) {
+        locator.fill(text, new Locator.FillOptions().setTimeout(ACTION_TIMEOUT));
     }
 
     /**
      * Get text from element
      */
     protected String getText(String selector) {
-        Log.info("Getting text from element: " + selector);
-        waitForElement(selector);
-        return page.textContent(selector);
+        Log.info("Getting text from element: {}", selector);
+        return timedOnElement("getText", selector, ATTACHED, () -> getText(locator(selector)));
+    }
+
+    /**
+     * Get text from element in a single driver call
+     */
+    protected String getText(Locator locator) {
+        return locator.textContent(new Locator.TextContentOptions().setTimeout(ACTION_TIMEOUT));
+    }
+
+    /**
+     * Read text and visibility of several fields in a single driver call.
+     * Takes field names mapped to selectors and returns the values in the same order.
+     */
+    @SuppressWarnings("unchecked")
+    protected Map<String, FieldValue> readFields(Map<String, String> fieldSelectors) {
+        Log.info("Reading fields in one call: {}", fieldSelectors.keySet());
+        Map<String, Object> raw = timed("readFields", fieldSelectors.keySet().toString(),
+                () -> (Map<String, Object>) page.evaluate(READ_FIELDS_SCRIPT, fieldSelectors));
+        Map<String, FieldValue> values = new LinkedHashMap<>();
+        for (String name : fieldSelectors.keySet()) {
+            Map<String, Object> field = (Map<String, Object>) raw.get(name);
+            String text = field == null ? null : (String) field.get("text");
+            boolean visible = field != null && Boolean.TRUE.equals(field.get("visible"));
+            values.put(name, new FieldValue(text, visible));
+        }
+        return values;
+    }
+
+    /**
+     * Select a Lightning combobox option by its value
+     */
+    protected void selectComboboxOption(String comboboxSelector, String value) {
+        Log.info("Selecting '{}' in {}", value, comboboxSelector);
+        measured("selectComboboxOption", comboboxSelector, () -> {
+            click(comboboxSelector);
+            click(String.format(COMBOBOX_OPTION, value.replace("'", "\\'")));
+        });
+    }
+
+    /**
+     * Fill a form described by field specs. All text fields are set in one batched call;
+     * comboboxes are then driven with their requested values. Fields with a null value are skipped.
+     * Returns the time spent per field in milliseconds.
+     */
+    @SuppressWarnings("unchecked")
+    protected Map<String, Double> fillForm(List<FormField> fields) {
+        long start = System.nanoTime();
+        Map<String, Double> latencies = new LinkedHashMap<>();
+        List<Map<String, String>> textFields = new ArrayList<>();
+        Map<String, FormField> byName = new HashMap<>();
+        for (FormField field : fields) {
+            if (field.getValue() != null && field.getType() == FormField.Type.TEXT) {
+                Map<String, String> spec = new HashMap<>();
+                spec.put("name", field.getName());
+                spec.put("selector", field.getSelector());
+                spec.put("value", field.getValue());
+                textFields.add(spec);
+                byName.put(field.getName(), field);
+            }
+        }
+
+        if (!textFields.isEmpty()) {
+            long batchStart = System.nanoTime();
+            Map<String, Object> result = timed("fillForm", textFields.size() + " text fields",
+                    () -> (Map<String, Object>) page.evaluate(FILL_FIELDS_SCRIPT, textFields));
+            double batchMillis = (System.nanoTime() - batchStart) / 1_000_000.0;
+            Log.info("Filled {} text fields in one call in {} ms", textFields.size(), Math.round(batchMillis));
+            // Split the batch into browser-side work per field and the remaining driver round trip
+            Map<String, Object> timings = (Map<String, Object>) result.get("timings");
+            double browserMillis = 0;
+            for (Map.Entry<String, Object> timing : timings.entrySet()) {
+                double fieldMillis = ((Number) timing.getValue()).doubleValue();
+                latencies.put(timing.getKey(), fieldMillis);
+                browserMillis += fieldMillis;
+                ActionMetrics.record(getClass().getSimpleName(), "fillField (browser)",
+                        byName.get(timing.getKey()).getSelector(), (long) (fieldMillis * 1_000_000));
+            }
+            ActionMetrics.record(getClass().getSimpleName(), "fillForm (driver overhead)", "",
+                    (long) (Math.max(0, batchMillis - browserMillis) * 1_000_000));
+            // Fields the batch could not set, e.g. not rendered yet, go through the auto-waiting fill
+            for (Object name : (List<Object>) result.get("missing")) {
+                FormField field = byName.get(name.toString());
+                Log.info("Field {} not ready for batch fill, filling it individually", field.getName());
+                long fieldStart = System.nanoTime();
+                fill(field.getSelector(), field.getValue());
+                latencies.put(field.getName(), (System.nanoTime() - fieldStart) / 1_000_000.0);
+            }
+        }
+
+        for (FormField field : fields) {
+            if (field.getValue() != null && field.getType() == FormField.Type.COMBOBOX) {
+                long fieldStart = System.nanoTime();
+                selectComboboxOption(field.getSelector(), field.getValue());
+                latencies.put(field.getName(), (System.nanoTime() - fieldStart) / 1_000_000.0);
+            }
+        }
+
+        Log.info("Form filled in {} ms, per field (ms): {}", (System.nanoTime() - start) / 1_000_000, latencies);
+        return latencies;
     }
 
     /**
@@ -56,25 +426,37 @@ public class BasePage {
      */
     public boolean isVisible(String selector) {
         try {
-            return page.isVisible(selector);
+            return timed("isVisible", selector, () -> locator(selector).isVisible());
         } catch (Exception e) {
             return false;
         }
     }
 
     /**
-     * Wait for page to load completely
+     * Wait for page to load: DOMContentLoaded and no Lightning spinner visible.
+     * Prefer {@link #waitForPageLoad(ReadinessStrategy)} with the condition the action really needs.
      */
     protected void waitForPageLoad() {
-        Log.info("Waiting for page to load completely");
-        page.waitForLoadState(LoadState.NETWORKIDLE);
+        waitForPageLoad(ReadinessStrategy.domContentLoaded().and(ReadinessStrategy.spinnersGone()));
+    }
+
+    /**
+     * Wait until the page satisfies the given ready condition
+     */
+    protected void waitForPageLoad(ReadinessStrategy readiness) {
+        Log.info("Waiting for page to be ready: {}", readiness.getName());
+        measured("waitForPageLoad", readiness.getName(), () -> {
+            readiness.await(page);
+        });
     }
 
     /**
-     * Take screenshot
+     * Take screenshot. The image is written in the background, or only if the test fails,
+     * depending on the artifact policy.
      */
     public void takeScreenshot(String name) {
-        Log.info("Taking screenshot: " + name);
-        page.screenshot(new Page.ScreenshotOptions().setPath(java.nio.file.Paths.get("screenshots/" + name + ".png")));
+        timed("takeScreenshot", name, () -> {
+            ScreenshotPipeline.capture(page, name);
+        });
     }
 }
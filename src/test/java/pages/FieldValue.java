@@ -0,0 +1,37 @@
+package pages;
+
+/**
+ * Text and visibility of one field read from the page
+ */
+public class FieldValue {
+    private final String text;
+    private final boolean visible;
+
+    public FieldValue(String text, boolean visible) {
+        this.text = text;
+        this.visible = visible;
+    }
+
+    /**
+     * Gets the element's text content, or null when the element was not found
+     */
+    public String getText() {
+        return text;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    /**
+     * Gets the text when the element is visible, otherwise an empty string
+     */
+    public String getVisibleText() {
+        return visible && text != null ? text : "";
+    }
+
+    @Override
+    public String toString() {
+        return visible ? "'" + text + "'" : "<not visible>";
+    }
+}
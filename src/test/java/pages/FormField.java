@@ -0,0 +1,53 @@
+package pages;
+
+/**
+ * One field of a form to fill: how to fill it, where it is and the value to enter
+ */
+public class FormField {
+
+    /**
+     * How a field is filled
+     */
+    public enum Type {
+        /** Plain input, filled together with the other text fields in one batch */
+        TEXT,
+        /** Lightning combobox, opened and then the option with the requested value clicked */
+        COMBOBOX
+    }
+
+    private final String name;
+    private final Type type;
+    private final String selector;
+    private final String value;
+
+    public FormField(String name, Type type, String selector, String value) {
+        this.name = name;
+        this.type = type;
+        this.selector = selector;
+        this.value = value;
+    }
+
+    public static FormField text(String name, String selector, String value) {
+        return new FormField(name, Type.TEXT, selector, value);
+    }
+
+    public static FormField combobox(String name, String selector, String value) {
+        return new FormField(name, Type.COMBOBOX, selector, value);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getSelector() {
+        return selector;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
@@ -18,6 +18,17 @@ public class LoginPage extends BasePage {
     private static final String LIGHTNING_APP_LAUNCHER = "div[class*='slds-icon-waffle']";
     private static final String USER_MENU = "div[class*='slds-global-header__item'] button[class*='slds-button']";
 
+    // Ready conditions for the login flow
+    private static final ReadinessStrategy LOGIN_FORM_READY =
+            ReadinessStrategy.element(USERNAME_INPUT).orDomContentLoaded();
+    private static final ReadinessStrategy LOGIN_RESULT_READY =
+            ReadinessStrategy.anyElement(LIGHTNING_APP_LAUNCHER, LOGIN_ERROR_MESSAGE).orDomContentLoaded();
+    private static final ReadinessStrategy SESSION_READY =
+            ReadinessStrategy.anyElement(LIGHTNING_APP_LAUNCHER, USERNAME_INPUT).orDomContentLoaded();
+
+    // Performance budgets of user-facing steps
+    private static final PerformanceBudget LOGIN_PAGE_BUDGET = PerformanceBudget.warn("Login page load", 5000);
+
     public LoginPage(Page page) {
         super(page);
     }
@@ -26,16 +37,18 @@ public class LoginPage extends BasePage {
      * Navigate to Salesforce login page
      */
     public void navigateToLoginPage(String url) {
-        Log.info("Navigating to Salesforce login page: " + url);
-        page.navigate(url);
-        waitForPageLoad();
+        Log.info("Navigating to Salesforce login page: {}", url);
+        measureStep(LOGIN_PAGE_BUDGET, () -> {
+            navigate(url);
+            waitForPageLoad(LOGIN_FORM_READY);
+        });
     }
 
     /**
      * Enter username
      */
     public void enterUsername(String username) {
-        Log.info("Entering username: " + username);
+        Log.info("Entering username: {}", username);
         fill(USERNAME_INPUT, username);
     }
 
@@ -53,7 +66,7 @@ public class LoginPage extends BasePage {
     public void clickLoginButton() {
         Log.info("Clicking login button");
         click(LOGIN_BUTTON);
-        waitForPageLoad();
+        waitForPageLoad(LOGIN_RESULT_READY);
     }
 
     /**
@@ -70,13 +83,28 @@ public class LoginPage extends BasePage {
      * Perform complete login
      */
     public void login(String username, String password) {
-        Log.info("Performing login with username: " + username);
+        Log.info("Performing login with username: {}", username);
         enterUsername(username);
         enterPassword(password);
         checkRememberMe();
         clickLoginButton();
     }
 
+    /**
+     * Open the landing page of an already authenticated session and check it is still valid
+     */
+    public boolean resumeSession(String landingUrl) {
+        Log.info("Resuming authenticated session at: {}", landingUrl);
+        navigate(landingUrl);
+        waitForPageLoad(SESSION_READY);
+        // An expired session is redirected back to the login form
+        if (isVisible(USERNAME_INPUT)) {
+            Log.info("Session is no longer valid, login form is displayed");
+            return false;
+        }
+        return isLoginSuccessful();
+    }
+
     /**
      * Check if login was successful by looking for Lightning app launcher
      */
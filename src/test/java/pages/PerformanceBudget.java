@@ -0,0 +1,90 @@
+package pages;
+
+import utils.Config;
+import utils.ExecutionProfile;
+import utils.Log;
+
+/**
+ * Time limit for a page step, measured from the start of the step until its ready condition is met.
+ * An exceeded FAIL budget fails the test, an exceeded WARN budget is only logged and reported.
+ * Budgets can be changed per run with -Dperf.budgets="Account save=5000:warn,Login page load=8000", and
+ * -Dperf.budgets.enforce=false makes every budget warn only.
+ */
+public class PerformanceBudget {
+    public enum Severity { FAIL, WARN }
+
+    private final String step;
+    private final long maxMillis;
+    private final Severity severity;
+
+    private PerformanceBudget(String step, long maxMillis, Severity severity) {
+        this.step = step;
+        this.maxMillis = maxMillis;
+        this.severity = severity;
+    }
+
+    /**
+     * Budget that fails the test when exceeded
+     */
+    public static PerformanceBudget fail(String step, long maxMillis) {
+        return new PerformanceBudget(step, maxMillis, Severity.FAIL);
+    }
+
+    /**
+     * Budget that only warns when exceeded
+     */
+    public static PerformanceBudget warn(String step, long maxMillis) {
+        return new PerformanceBudget(step, maxMillis, Severity.WARN);
+    }
+
+    public String getStep() {
+        return step;
+    }
+
+    /**
+     * Gets the budget in effect for this run, taking overrides from perf.budgets into account.
+     * With slowMo set, every action is delayed on purpose, so FAIL budgets only warn; the same applies with
+     * perf.budgets.enforce=false.
+     */
+    public PerformanceBudget effective() {
+        PerformanceBudget budget = configured();
+        if (budget.severity == Severity.FAIL && (ExecutionProfile.current().getSlowMo() > 0
+                || !Config.getBoolean("perf.budgets.enforce", true))) {
+            return new PerformanceBudget(step, budget.maxMillis, Severity.WARN);
+        }
+        return budget;
+    }
+
+    private PerformanceBudget configured() {
+        String overrides = Config.get("perf.budgets", "");
+        for (String entry : overrides.split(",")) {
+            int equals = entry.indexOf('=');
+            if (equals < 0 || !entry.substring(0, equals).trim().equalsIgnoreCase(step)) {
+                continue;
+            }
+            String[] value = entry.substring(equals + 1).trim().split(":");
+            try {
+                Severity override = value.length > 1 ? Severity.valueOf(value[1].trim().toUpperCase()) : severity;
+                return new PerformanceBudget(step, Long.parseLong(value[0].trim()), override);
+            } catch (IllegalArgumentException e) {
+                // Also covers NumberFormatException
+                Log.warn("Invalid perf.budgets entry '" + entry.trim() + "', using " + this);
+                return this;
+            }
+        }
+        return this;
+    }
+
+    public long getMaxMillis() {
+        return maxMillis;
+    }
+
+    public Severity getSeverity() {
+        return severity;
+    }
+
+    @Override
+    public String toString() {
+        return step + " under " + maxMillis + " ms (" + severity.name().toLowerCase() + ")";
+    }
+}
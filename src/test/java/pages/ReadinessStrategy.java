@@ -0,0 +1,273 @@
+package pages;
+
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.TimeoutError;
+import com.microsoft.playwright.options.LoadState;
+import com.microsoft.playwright.options.WaitForSelectorState;
+import com.microsoft.playwright.options.WaitUntilState;
+import utils.BrowserScheduler;
+import utils.Config;
+import utils.Log;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Condition a page action waits for before the page counts as ready.
+ * Every wait is timed per strategy so slow ready conditions show up in the logs.
+ * On a browser shared through the BrowserScheduler the condition is polled with a non-blocking check
+ * instead, so other tests can use the browser while this one waits.
+ */
+public abstract class ReadinessStrategy {
+    private static final double DEFAULT_TIMEOUT = 30000;
+    // How long a condition with a DOMContentLoaded fallback gets before falling back
+    private static final double PRIMARY_TIMEOUT = Config.getInt("readiness.fallback.after.ms", 5000);
+    private static final String SPINNERS = "lightning-spinner, .slds-spinner";
+    private static final String NO_SPINNER_VISIBLE = "selector => Array.from(document.querySelectorAll(selector))"
+            + ".every(e => !(e.offsetWidth || e.offsetHeight || e.getClientRects().length))";
+    private static final Map<String, AtomicLong[]> waitTimes = new ConcurrentHashMap<>();
+
+    private final String name;
+
+    protected ReadinessStrategy(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Blocks until the condition holds or the timeout expires
+     */
+    protected abstract void waitUntilReady(Page page, double timeout);
+
+    /**
+     * Checks the condition once without waiting
+     */
+    protected abstract boolean isReady(Page page);
+
+    /**
+     * Polls the condition until it holds or the timeout expires, without holding the shared browser in between
+     */
+    protected void pollUntilReady(Page page, double timeout) {
+        BrowserScheduler.pollUntil(() -> isReady(page), timeout, name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Waits for the condition and records how long it took
+     */
+    public void await(Page page) {
+        long start = System.nanoTime();
+        try {
+            if (BrowserScheduler.isAttached()) {
+                pollUntilReady(page, DEFAULT_TIMEOUT);
+            } else {
+                waitUntilReady(page, DEFAULT_TIMEOUT);
+            }
+        } finally {
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            record(name, elapsed);
+            Log.info("Page ready after {} ms: {}", elapsed, name);
+        }
+    }
+
+    /**
+     * Ready when the element is visible
+     */
+    public static ReadinessStrategy element(String selector) {
+        return new ReadinessStrategy("element " + selector) {
+            @Override
+            protected void waitUntilReady(Page page, double timeout) {
+                page.waitForSelector(selector, new Page.WaitForSelectorOptions()
+                        .setState(WaitForSelectorState.VISIBLE)
+                        .setTimeout(timeout));
+            }
+
+            @Override
+            protected boolean isReady(Page page) {
+                return page.locator(selector + " >> visible=true").count() > 0;
+            }
+        };
+    }
+
+    /**
+     * Ready when any of the elements is visible, e.g. the home page or a login error
+     */
+    public static ReadinessStrategy anyElement(String... selectors) {
+        return element(String.join(", ", selectors));
+    }
+
+    /**
+     * Ready when no Lightning spinner is visible
+     */
+    public static ReadinessStrategy spinnersGone() {
+        return new ReadinessStrategy("spinners gone") {
+            @Override
+            protected void waitUntilReady(Page page, double timeout) {
+                page.waitForFunction(NO_SPINNER_VISIBLE, SPINNERS,
+                        new Page.WaitForFunctionOptions().setTimeout(timeout));
+            }
+
+            @Override
+            protected boolean isReady(Page page) {
+                return Boolean.TRUE.equals(page.evaluate(NO_SPINNER_VISIBLE, SPINNERS));
+            }
+        };
+    }
+
+    /**
+     * Ready when the page URL matches the regular expression
+     */
+    public static ReadinessStrategy urlMatches(String regex) {
+        Pattern pattern = Pattern.compile(regex);
+        return new ReadinessStrategy("url " + regex) {
+            @Override
+            protected void waitUntilReady(Page page, double timeout) {
+                page.waitForURL(pattern, new Page.WaitForURLOptions()
+                        .setWaitUntil(WaitUntilState.COMMIT)
+                        .setTimeout(timeout));
+            }
+
+            @Override
+            protected boolean isReady(Page page) {
+                return pattern.matcher(page.url()).find();
+            }
+        };
+    }
+
+    /**
+     * Ready when the DOMContentLoaded event has fired
+     */
+    public static ReadinessStrategy domContentLoaded() {
+        return new ReadinessStrategy("domcontentloaded") {
+            @Override
+            protected void waitUntilReady(Page page, double timeout) {
+                page.waitForLoadState(LoadState.DOMCONTENTLOADED, new Page.WaitForLoadStateOptions().setTimeout(timeout));
+            }
+
+            @Override
+            protected boolean isReady(Page page) {
+                return !"loading".equals(page.evaluate("document.readyState"));
+            }
+        };
+    }
+
+    /**
+     * Ready when there has been no network traffic for 500 ms. Slow on Lightning, kept for pages that need it.
+     */
+    public static ReadinessStrategy networkIdle() {
+        return new ReadinessStrategy("networkidle") {
+            @Override
+            protected void waitUntilReady(Page page, double timeout) {
+                page.waitForLoadState(LoadState.NETWORKIDLE, new Page.WaitForLoadStateOptions().setTimeout(timeout));
+            }
+
+            @Override
+            protected boolean isReady(Page page) {
+                return "complete".equals(page.evaluate("document.readyState"));
+            }
+
+            // Network idle cannot be checked from the page, so it is awaited holding the shared browser
+            @Override
+            protected void pollUntilReady(Page page, double timeout) {
+                BrowserScheduler.run(() -> waitUntilReady(page, timeout));
+            }
+        };
+    }
+
+    /**
+     * Ready when this condition and then the other one hold
+     */
+    public ReadinessStrategy and(ReadinessStrategy other) {
+        ReadinessStrategy first = this;
+        return new ReadinessStrategy(name + " and " + other.name) {
+            @Override
+            protected void waitUntilReady(Page page, double timeout) {
+                long start = System.nanoTime();
+                first.waitUntilReady(page, timeout);
+                double remaining = timeout - (System.nanoTime() - start) / 1_000_000.0;
+                other.waitUntilReady(page, Math.max(1, remaining));
+            }
+
+            @Override
+            protected boolean isReady(Page page) {
+                return first.isReady(page) && other.isReady(page);
+            }
+
+            @Override
+            protected void pollUntilReady(Page page, double timeout) {
+                long start = System.nanoTime();
+                first.pollUntilReady(page, timeout);
+                double remaining = timeout - (System.nanoTime() - start) / 1_000_000.0;
+                other.pollUntilReady(page, Math.max(1, remaining));
+            }
+        };
+    }
+
+    /**
+     * Falls back to DOMContentLoaded when this condition does not hold within readiness.fallback.after.ms
+     * (default 5000), so a missing element costs a few seconds rather than the whole timeout
+     */
+    public ReadinessStrategy orDomContentLoaded() {
+        ReadinessStrategy primary = this;
+        ReadinessStrategy fallback = domContentLoaded();
+        return new ReadinessStrategy(name + " or domcontentloaded") {
+            @Override
+            protected void waitUntilReady(Page page, double timeout) {
+                long start = System.nanoTime();
+                try {
+                    primary.waitUntilReady(page, Math.min(timeout, PRIMARY_TIMEOUT));
+                } catch (TimeoutError e) {
+                    Log.warn("Ready condition '" + primary.name + "' not met, falling back to domcontentloaded");
+                    fallback.waitUntilReady(page, remaining(timeout, start));
+                }
+            }
+
+            @Override
+            protected boolean isReady(Page page) {
+                return primary.isReady(page);
+            }
+
+            @Override
+            protected void pollUntilReady(Page page, double timeout) {
+                long start = System.nanoTime();
+                try {
+                    primary.pollUntilReady(page, Math.min(timeout, PRIMARY_TIMEOUT));
+                } catch (TimeoutError e) {
+                    Log.warn("Ready condition '" + primary.name + "' not met, falling back to domcontentloaded");
+                    fallback.pollUntilReady(page, remaining(timeout, start));
+                }
+            }
+        };
+    }
+
+    private static double remaining(double timeout, long startNanos) {
+        return Math.max(1, timeout - (System.nanoTime() - startNanos) / 1_000_000.0);
+    }
+
+    private static void record(String name, long elapsedMillis) {
+        AtomicLong[] times = waitTimes.computeIfAbsent(name, n -> new AtomicLong[]{new AtomicLong(), new AtomicLong(), new AtomicLong()});
+        times[0].incrementAndGet();
+        times[1].addAndGet(elapsedMillis);
+        times[2].accumulateAndGet(elapsedMillis, Math::max);
+    }
+
+    /**
+     * Gets count, average and max wait per strategy for this run
+     */
+    public static String getStats() {
+        StringBuilder stats = new StringBuilder("Readiness waits:");
+        for (Map.Entry<String, AtomicLong[]> entry : new TreeMap<>(waitTimes).entrySet()) {
+            AtomicLong[] times = entry.getValue();
+            stats.append(System.lineSeparator()).append("  ").append(entry.getKey())
+                    .append(" - count: ").append(times[0].get())
+                    .append(", avg: ").append(times[1].get() / Math.max(1, times[0].get())).append(" ms")
+                    .append(", max: ").append(times[2].get()).append(" ms");
+        }
+        return stats.toString();
+    }
+}
@@ -0,0 +1,81 @@
+package pages;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.qameta.allure.Allure;
+import utils.Log;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Timing of one page step: the wall-clock time until the step's ready condition was met, plus what the browser
+ * recorded meanwhile (Navigation Timing for a new document, Resource Timing, paint and LCP entries).
+ */
+public class StepPerformance {
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final PerformanceBudget budget;
+    private final double durationMillis;
+    private final Map<String, Object> browserTimings;
+
+    StepPerformance(PerformanceBudget budget, double durationMillis, Map<String, Object> browserTimings) {
+        this.budget = budget;
+        this.durationMillis = durationMillis;
+        this.browserTimings = browserTimings;
+    }
+
+    public String getStep() {
+        return budget.getStep();
+    }
+
+    public double getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Gets the entries collected in the browser, empty when they could not be read
+     */
+    public Map<String, Object> getBrowserTimings() {
+        return browserTimings;
+    }
+
+    public boolean isOverBudget() {
+        return durationMillis > budget.getMaxMillis();
+    }
+
+    /**
+     * Logs the step timing, attaches it to the Allure report and applies the budget.
+     * Throws an AssertionError when a FAIL budget is exceeded.
+     */
+    void report() {
+        Log.info("Step '{}' took {} ms (budget {} ms), browser timings: {}", getStep(), Math.round(durationMillis),
+                budget.getMaxMillis(), browserTimings);
+        Allure.addAttachment("Performance - " + getStep(), "application/json", toJson(), ".json");
+        if (!isOverBudget()) {
+            return;
+        }
+        String message = "Performance budget exceeded: " + budget + ", took " + Math.round(durationMillis) + " ms";
+        if (budget.getSeverity() == PerformanceBudget.Severity.FAIL) {
+            Log.error(message);
+            throw new AssertionError(message);
+        }
+        Log.warn(message);
+    }
+
+    private String toJson() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("step", getStep());
+        result.put("durationMs", durationMillis);
+        result.put("budgetMs", budget.getMaxMillis());
+        result.put("severity", budget.getSeverity().name());
+        result.put("overBudget", isOverBudget());
+        result.put("browser", browserTimings);
+        try {
+            return JSON.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            return result.toString();
+        }
+    }
+}
@@ -22,6 +22,8 @@ public class AccountTest extends BaseTest {
     @Severity(SeverityLevel.CRITICAL)
     @Story("User should be able to create new accounts")
     public void testAccountCreation(Map<String, String> loginData) {
+        LoginPage loginPage = getLoginPage();
+        AccountPage accountPage = getAccountPage();
         String username = loginData.get("Username");
         String password = loginData.get("Password");
         String url = loginData.get("URL");
@@ -29,9 +31,8 @@ public class AccountTest extends BaseTest {
         Log.info("Testing account creation functionality");
         
         try {
-            // Login first
-            loginPage.navigateToLoginPage(url);
-            loginPage.login(username, password);
+            // Login first, reusing a cached session for this user when available
+            loginAs(url, username, password);
             loginPage.takeScreenshot("after_login");
 
             // Verify login was successful
@@ -61,8 +62,10 @@ public class AccountTest extends BaseTest {
                 "Account should be created successfully");
 
             // Verify account details
-            Assert.assertTrue(accountPage.verifyAccountDetails(accountName, accountType, industry, phone, website),
-                "Account details should match the entered values");
+            Map<String, String> mismatches = accountPage.findAccountDetailMismatches(
+                    accountName, accountType, industry, phone, website);
+            Assert.assertTrue(mismatches.isEmpty(),
+                "Account details should match the entered values, mismatched fields: " + mismatches);
 
             Log.info("Account creation test passed for account: " + accountName);
 
@@ -78,6 +81,8 @@ public class AccountTest extends BaseTest {
     @Severity(SeverityLevel.CRITICAL)
     @Story("User should be able to create accounts with various data sets")
     public void testDataDrivenAccountCreation(Map<String, String> testData) {
+        LoginPage loginPage = getLoginPage();
+        AccountPage accountPage = getAccountPage();
         String testCase = testData.get("TestCase");
         String username = testData.get("Username");
         String password = testData.get("Password");
@@ -91,9 +96,8 @@ public class AccountTest extends BaseTest {
         Log.info("Executing data-driven account creation test case: " + testCase);
 
         try {
-            // Login first
-            loginPage.navigateToLoginPage(url);
-            loginPage.login(username, password);
+            // Login first, reusing a cached session for this user when available
+            loginAs(url, username, password);
 
             // Verify login was successful
             Assert.assertTrue(loginPage.isLoginSuccessful(), 
@@ -114,8 +118,11 @@ public class AccountTest extends BaseTest {
                 "Account should be created successfully for test case: " + testCase);
 
             // Verify account details
-            Assert.assertTrue(accountPage.verifyAccountDetails(accountName, accountType, industry, phone, website),
-                "Account details should match the entered values for test case: " + testCase);
+            Map<String, String> mismatches = accountPage.findAccountDetailMismatches(
+                    accountName, accountType, industry, phone, website);
+            Assert.assertTrue(mismatches.isEmpty(),
+                "Account details should match the entered values for test case: " + testCase
+                    + ", mismatched fields: " + mismatches);
 
             Log.info("Data-driven account creation test passed for test case: " + testCase);
 
@@ -131,6 +138,8 @@ public class AccountTest extends BaseTest {
     @Severity(SeverityLevel.NORMAL)
     @Story("User should be able to navigate to accounts page")
     public void testAccountPageNavigation(Map<String, String> loginData) {
+        LoginPage loginPage = getLoginPage();
+        AccountPage accountPage = getAccountPage();
         String username = loginData.get("Username");
         String password = loginData.get("Password");
         String url = loginData.get("URL");
@@ -138,9 +147,8 @@ public class AccountTest extends BaseTest {
         Log.info("Testing account page navigation");
 
         try {
-            // Login first
-            loginPage.navigateToLoginPage(url);
-            loginPage.login(username, password);
+            // Login first, reusing a cached session for this user when available
+            loginAs(url, username, password);
 
             // Verify login was successful
             Assert.assertTrue(loginPage.isLoginSuccessful(), 
@@ -168,6 +176,8 @@ public class AccountTest extends BaseTest {
     @Severity(SeverityLevel.NORMAL)
     @Story("Account creation form should validate required fields")
     public void testAccountFormValidation(Map<String, String> loginData) {
+        LoginPage loginPage = getLoginPage();
+        AccountPage accountPage = getAccountPage();
         String username = loginData.get("Username");
         String password = loginData.get("Password");
         String url = loginData.get("URL");
@@ -175,9 +185,8 @@ public class AccountTest extends BaseTest {
         Log.info("Testing account form validation");
 
         try {
-            // Login first
-            loginPage.navigateToLoginPage(url);
-            loginPage.login(username, password);
+            // Login first, reusing a cached session for this user when available
+            loginAs(url, username, password);
 
             // Verify login was successful
             Assert.assertTrue(loginPage.isLoginSuccessful(), 
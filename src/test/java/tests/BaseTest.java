@@ -1,51 +1,55 @@
 package tests;
 
 import com.microsoft.playwright.*;
+import org.testng.ITestResult;
 import org.testng.annotations.*;
 import pages.AccountPage;
 import pages.LoginPage;
+import pages.ReadinessStrategy;
+import utils.ActionMetrics;
+import utils.BrowserScheduler;
+import utils.DataSnapshot;
+import utils.ExecutionProfile;
 import utils.Log;
+import utils.NetworkPolicy;
+import utils.PlaywrightManager;
+import utils.SalesforceStandIn;
+import utils.ScreenshotPipeline;
+import utils.ScreenshotStore;
+import utils.SessionCache;
+import utils.SheetCache;
+import utils.TraceRecorder;
 
+import java.lang.reflect.Method;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
- * Base test class containing common setup and teardown methods
+ * Base test class containing common setup and teardown methods.
+ * Browser handles and page objects are kept per thread so tests can run in parallel.
+ * With -Dbrowser.multiplex=true the tests share browsers through the BrowserScheduler; direct driver calls
+ * here then run holding the shared browser's baton.
  */
 public class BaseTest {
-    protected Playwright playwright;
-    protected Browser browser;
-    protected BrowserContext context;
-    protected Page page;
-    protected LoginPage loginPage;
-    protected AccountPage accountPage;
+    private static final ThreadLocal<BrowserContext> context = new ThreadLocal<>();
+    private static final ThreadLocal<Page> page = new ThreadLocal<>();
+    private static final ThreadLocal<LoginPage> loginPage = new ThreadLocal<>();
+    private static final ThreadLocal<AccountPage> accountPage = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> freshLogin = ThreadLocal.withInitial(() -> false);
+    private static final ThreadLocal<SessionCache.Session> seededSession = new ThreadLocal<>();
+    private static final ThreadLocal<NetworkPolicy> networkPolicy = new ThreadLocal<>();
 
     @BeforeSuite
     public void setUpSuite() {
-        Log.info("Setting up test suite");
-        playwright = Playwright.create();
-    }
+        ExecutionProfile profile = ExecutionProfile.current();
+        Log.info("Setting up test suite with execution profile: " + profile);
+        PlaywrightManager.setLaunchOptions(profile.getLaunchOptions());
+        if (SalesforceStandIn.isEnabled()) {
+            SalesforceStandIn.start();
+        }
 
-    @BeforeMethod
-    public void setUp() {
-        Log.info("Setting up browser and page for test");
-        
-        // Launch browser
-        browser = playwright.chromium().launch(new BrowserType.LaunchOptions()
-                .setHeadless(false) // Set to true for headless execution
-                .setSlowMo(1000)); // Add delay for better visibility
-        
-        // Create browser context
-        context = browser.newContext(new Browser.NewContextOptions()
-                .setViewportSize(1920, 1080)
-                .setUserAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36"));
-        
-        // Create new page
-        page = context.newPage();
-        
-        // Initialize page objects
-        loginPage = new LoginPage(page);
-        accountPage = new AccountPage(page);
-        
         // Create screenshots directory
         try {
             java.nio.file.Files.createDirectories(Paths.get("screenshots"));
@@ -54,25 +58,223 @@ public class BaseTest {
         }
     }
 
-    @AfterMethod
-    public void tearDown() {
-        Log.info("Tearing down browser and page after test");
-        if (page != null) {
-            page.close();
+    @BeforeMethod
+    public void setUp(Method method, Object[] parameters) {
+        String testName = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        String dataRow = findDataRow(parameters);
+        Log.startTest(testName, dataRow);
+        Log.info("Setting up browser and page for test");
+        ScreenshotPipeline.startTest(testName, dataRow);
+        freshLogin.set(method.isAnnotationPresent(FreshLogin.class)
+                || method.getDeclaringClass().isAnnotationPresent(FreshLogin.class));
+
+        ExecutionProfile profile = ExecutionProfile.current();
+        Browser.NewContextOptions options = profile.getContextOptions();
+
+        // Start already authenticated when this row's credential has a cached session
+        SessionCache.Session session = findCachedSession(parameters);
+        if (session != null) {
+            Log.info("Creating browser context from cached session");
+            options.setStorageState(session.getStorageState());
+        }
+        seededSession.set(session);
+
+        if (BrowserScheduler.isEnabled()) {
+            BrowserScheduler.attach();
+        }
+        BrowserScheduler.lock();
+        try {
+            // Create a fresh browser context on this worker's pooled or shared browser
+            BrowserContext browserContext = PlaywrightManager.getBrowserPool().newContext(options);
+            context.set(browserContext);
+            if (profile.isTracing()) {
+                TraceRecorder.start(browserContext,
+                        method.getDeclaringClass().getSimpleName() + "_" + method.getName(), dataRow);
+            }
+            if (NetworkPolicy.isEnabled()) {
+                NetworkPolicy policy = NetworkPolicy.fromConfig();
+                policy.install(browserContext);
+                networkPolicy.set(policy);
+            }
+
+            // Create new page
+            page.set(browserContext.newPage());
+        } finally {
+            BrowserScheduler.unlock();
         }
-        if (context != null) {
-            context.close();
+        Page browserPage = page.get();
+
+        // Initialize page objects bound to this worker's page
+        loginPage.set(new LoginPage(browserPage));
+        accountPage.set(new AccountPage(browserPage));
+        if (networkPolicy.get() != null) {
+            networkPolicy.get().allow(getLoginPage().getAllowedResources());
+            networkPolicy.get().allow(getAccountPage().getAllowedResources());
         }
-        if (browser != null) {
-            browser.close();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown(ITestResult result) {
+        Log.info("Tearing down browser context and page after test");
+        BrowserScheduler.lock();
+        try {
+            TraceRecorder.finish(!result.isSuccess());
+            ScreenshotPipeline.finishTest(!result.isSuccess());
+            if (page.get() != null) {
+                page.get().close();
+            }
+            if (networkPolicy.get() != null) {
+                Log.info(networkPolicy.get().getStats());
+            }
+            // Only the context is closed, the pooled browser is reused by the next test on this worker
+            PlaywrightManager.getBrowserPool().release(context.get());
+        } finally {
+            BrowserScheduler.unlock();
         }
+        BrowserScheduler.detach();
+        PlaywrightManager.release();
+        page.remove();
+        context.remove();
+        loginPage.remove();
+        accountPage.remove();
+        seededSession.remove();
+        networkPolicy.remove();
+        Log.endTest();
     }
 
-    @AfterSuite
+    @AfterSuite(alwaysRun = true)
     public void tearDownSuite() {
         Log.info("Tearing down test suite");
-        if (playwright != null) {
-            playwright.close();
+        PlaywrightManager.closeAll();
+        ScreenshotPipeline.shutdown();
+        Log.info(SessionCache.getStats());
+        Log.info(NetworkPolicy.getTotalStats());
+        Log.info(ReadinessStrategy.getStats());
+        Log.info(SheetCache.getStats());
+        Log.info(DataSnapshot.getStats());
+        Log.info(ScreenshotPipeline.getStats());
+        Log.info(ScreenshotStore.getStats());
+        Log.info(TraceRecorder.getStats());
+        if (BrowserScheduler.isEnabled()) {
+            Log.info(BrowserScheduler.getStats());
+        }
+        if (SalesforceStandIn.getBaseUrl() != null) {
+            Log.info(SalesforceStandIn.getStats());
+            SalesforceStandIn.stop();
+        }
+        ActionMetrics.export();
+    }
+
+    /**
+     * Log in as the given user, reusing a cached session for this URL and username when possible.
+     * Tests annotated with {@link FreshLogin} always go through the login form.
+     */
+    protected void loginAs(String url, String username, String password) {
+        LoginPage loginPage = getLoginPage();
+        if (freshLogin.get() || !SessionCache.isEnabled()) {
+            loginPage.navigateToLoginPage(url);
+            loginPage.login(username, password);
+            return;
+        }
+
+        SessionCache.Session session = SessionCache.get(url, username);
+        if (session != null && resumeSession(session)) {
+            return;
+        }
+
+        List<SessionCache.Session> created = new ArrayList<>(1);
+        session = SessionCache.refresh(url, username, session, () -> {
+            BrowserScheduler.run(() -> getContext().clearCookies());
+            loginPage.navigateToLoginPage(url);
+            loginPage.login(username, password);
+            if (loginPage.isLoginErrorDisplayed() || !loginPage.isLoginSuccessful()) {
+                return null;
+            }
+            SessionCache.Session fresh = BrowserScheduler.call(() -> new SessionCache.Session(
+                    getContext().storageState(), getContext().cookies(), getPage().url()));
+            created.add(fresh);
+            return fresh;
+        });
+
+        // Another worker refreshed the session while we waited for the lock
+        if (session != null && created.isEmpty() && !resumeSession(session)) {
+            BrowserScheduler.run(() -> getContext().clearCookies());
+            loginPage.navigateToLoginPage(url);
+            loginPage.login(username, password);
+        }
+    }
+
+    private boolean resumeSession(SessionCache.Session session) {
+        if (seededSession.get() != session) {
+            BrowserScheduler.run(() -> getContext().addCookies(session.getCookies()));
+        }
+        return getLoginPage().resumeSession(session.getLandingUrl());
+    }
+
+    /**
+     * Gets the TestCase name of a data-driven row, or null for a test without test data
+     */
+    private String findDataRow(Object[] parameters) {
+        if (parameters == null || parameters.length == 0 || !(parameters[0] instanceof Map)) {
+            return null;
+        }
+        Object testCase = ((Map<?, ?>) parameters[0]).get("TestCase");
+        return testCase == null ? null : testCase.toString();
+    }
+
+    private SessionCache.Session findCachedSession(Object[] parameters) {
+        if (freshLogin.get() || !SessionCache.isEnabled() || parameters == null || parameters.length == 0
+                || !(parameters[0] instanceof Map)) {
+            return null;
+        }
+        Map<?, ?> testData = (Map<?, ?>) parameters[0];
+        Object url = testData.get("URL");
+        Object username = testData.get("Username");
+        if (url == null || username == null) {
+            return null;
         }
+        return SessionCache.peek(url.toString(), username.toString());
+    }
+
+    /**
+     * Gets the Playwright instance leased to the current test
+     */
+    protected Playwright getPlaywright() {
+        return PlaywrightManager.getPlaywright();
+    }
+
+    /**
+     * Gets the browser leased to the current test
+     */
+    protected Browser getBrowser() {
+        return PlaywrightManager.getBrowserPool().getBrowser();
+    }
+
+    /**
+     * Gets the browser context of the current test
+     */
+    protected BrowserContext getContext() {
+        return context.get();
+    }
+
+    /**
+     * Gets the page of the current test
+     */
+    protected Page getPage() {
+        return page.get();
+    }
+
+    /**
+     * Gets the login page object bound to the current test's page
+     */
+    protected LoginPage getLoginPage() {
+        return loginPage.get();
+    }
+
+    /**
+     * Gets the account page object bound to the current test's page
+     */
+    protected AccountPage getAccountPage() {
+        return accountPage.get();
     }
 }
@@ -14,6 +14,7 @@ import java.util.Map;
  */
 @Epic("Salesforce Authentication")
 @Feature("User Login")
+@FreshLogin
 public class LoginTest extends BaseTest {
 
     @Test(dataProvider = "loginData", dataProviderClass = ExcelUtils.class)
@@ -21,6 +22,7 @@ public class LoginTest extends BaseTest {
     @Severity(SeverityLevel.CRITICAL)
     @Story("User should be able to login with valid credentials")
     public void testValidLogin(Map<String, String> testData) {
+        LoginPage loginPage = getLoginPage();
         String testCase = testData.get("TestCase");
         String username = testData.get("Username");
         String password = testData.get("Password");
@@ -65,6 +67,7 @@ public class LoginTest extends BaseTest {
     @Severity(SeverityLevel.NORMAL)
     @Story("Login page should display all required elements")
     public void testLoginPageElements() {
+        LoginPage loginPage = getLoginPage();
         String url = "https://test.salesforce.com";
         
         Log.info("Testing login page elements visibility");
@@ -96,6 +99,7 @@ public class LoginTest extends BaseTest {
     @Severity(SeverityLevel.MINOR)
     @Story("User should be able to access forgot password link")
     public void testForgotPasswordLink() {
+        LoginPage loginPage = getLoginPage();
         String url = "https://test.salesforce.com";
         
         Log.info("Testing forgot password link");
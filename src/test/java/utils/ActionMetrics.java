@@ -0,0 +1,112 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.qameta.allure.Allure;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Run-wide latency histograms of page actions, one per page class, action and selector.
+ * Exported at the end of the run to target/action-metrics.json (-Daction.metrics.file) and attached to the
+ * Allure report, sorted by p95 so the slowest selectors and steps come first.
+ */
+public class ActionMetrics {
+    private static final Path EXPORT_PATH = Paths.get(Config.get("action.metrics.file", "target/action-metrics.json"));
+    private static final Map<Key, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Records the latency of one action
+     */
+    public static void record(String page, String action, String selector, long nanos) {
+        histograms.computeIfAbsent(new Key(page, action, selector), key -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Writes the histograms as JSON, attaches them to the Allure report and logs the slowest actions
+     */
+    public static void export() {
+        if (histograms.isEmpty()) {
+            return;
+        }
+        List<Map<String, Object>> rows = getSummary();
+        try {
+            String json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(rows);
+            Files.createDirectories(EXPORT_PATH.toAbsolutePath().getParent());
+            Files.write(EXPORT_PATH, json.getBytes(StandardCharsets.UTF_8));
+            Allure.addAttachment("Action latency", "application/json", json, ".json");
+            Log.info("Wrote action latency histograms: {}", EXPORT_PATH);
+        } catch (IOException e) {
+            Log.warn("Could not export action latency histograms: " + e.getMessage());
+        }
+        Log.info("Slowest actions by p95:");
+        rows.stream().limit(10).forEach(row -> Log.info("  {} {} {} - p95 {} ms, max {} ms, count {}",
+                row.get("page"), row.get("action"), row.get("selector"), row.get("p95Ms"), row.get("maxMs"),
+                row.get("count")));
+    }
+
+    /**
+     * Gets one entry per histogram with its percentiles, slowest p95 first
+     */
+    public static List<Map<String, Object>> getSummary() {
+        List<Map.Entry<Key, LatencyHistogram>> entries = new ArrayList<>(histograms.entrySet());
+        entries.sort(Comparator.comparingDouble(
+                (Map.Entry<Key, LatencyHistogram> entry) -> entry.getValue().getPercentileMillis(0.95)).reversed());
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Map.Entry<Key, LatencyHistogram> entry : entries) {
+            LatencyHistogram histogram = entry.getValue();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("page", entry.getKey().page);
+            row.put("action", entry.getKey().action);
+            row.put("selector", entry.getKey().selector);
+            row.put("count", histogram.getCount());
+            row.put("totalMs", histogram.getTotalMillis());
+            row.put("p50Ms", histogram.getPercentileMillis(0.50));
+            row.put("p95Ms", histogram.getPercentileMillis(0.95));
+            row.put("p99Ms", histogram.getPercentileMillis(0.99));
+            row.put("maxMs", histogram.getMaxMillis());
+            row.put("bucketsUs", histogram.getBuckets());
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Page class, action and selector an action was recorded under
+     */
+    private static class Key {
+        private final String page;
+        private final String action;
+        private final String selector;
+
+        Key(String page, String action, String selector) {
+            this.page = page;
+            this.action = action;
+            this.selector = selector == null ? "" : selector;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return page.equals(other.page) && action.equals(other.action) && selector.equals(other.selector);
+        }
+
+        @Override
+        public int hashCode() {
+            return (page.hashCode() * 31 + action.hashCode()) * 31 + selector.hashCode();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package utils;
+
+/**
+ * When test artifacts such as traces and screenshots are kept
+ */
+public enum ArtifactPolicy {
+    ALWAYS,
+    ON_FAILURE,
+    OFF;
+
+    /**
+     * Checks whether an artifact should be kept for a test with the given outcome
+     */
+    public boolean shouldKeep(boolean testFailed) {
+        return this == ALWAYS || (this == ON_FAILURE && testFailed);
+    }
+}
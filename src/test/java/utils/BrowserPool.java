@@ -0,0 +1,162 @@
+package utils;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.PlaywrightException;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one launched Browser alive and hands out fresh BrowserContexts from it.
+ * The browser is restarted after a set number of contexts or when it has crashed. A pool shared by several
+ * tests only restarts a browser that has disconnected, since any restart closes the other tests' contexts.
+ */
+public class BrowserPool {
+    private static final AtomicLong launches = new AtomicLong();
+    private static final AtomicLong launchMillis = new AtomicLong();
+    private static final AtomicLong contextsServed = new AtomicLong();
+    private static final AtomicLong recycles = new AtomicLong();
+    private static final AtomicLong crashRestarts = new AtomicLong();
+
+    private final BrowserType browserType;
+    private final BrowserType.LaunchOptions launchOptions;
+    private final int maxContextsPerBrowser;
+    private final boolean shared;
+    private Browser browser;
+    private int contextsOnBrowser;
+    private volatile boolean crashed;
+
+    public BrowserPool(BrowserType browserType, BrowserType.LaunchOptions launchOptions) {
+        this(browserType, launchOptions, Config.getInt("browser.pool.maxContexts", 50));
+    }
+
+    public BrowserPool(BrowserType browserType, BrowserType.LaunchOptions launchOptions, int maxContextsPerBrowser) {
+        this(browserType, launchOptions, maxContextsPerBrowser, false);
+    }
+
+    /**
+     * @param shared whether other tests keep contexts open on the browser, so that a failed call must not
+     *               restart it while it is still connected
+     */
+    public BrowserPool(BrowserType browserType, BrowserType.LaunchOptions launchOptions, int maxContextsPerBrowser,
+                       boolean shared) {
+        this.browserType = browserType;
+        this.launchOptions = launchOptions;
+        this.maxContextsPerBrowser = Math.max(1, maxContextsPerBrowser);
+        this.shared = shared;
+    }
+
+    /**
+     * Creates a new isolated context on the pooled browser, launching or restarting it when needed.
+     * On a shared pool a failure on a connected browser is thrown to the caller instead.
+     */
+    public BrowserContext newContext(Browser.NewContextOptions options) {
+        prepareBrowser();
+        BrowserContext context;
+        try {
+            context = browser.newContext(options);
+        } catch (PlaywrightException e) {
+            if (shared && browser.isConnected()) {
+                throw e;
+            }
+            Log.warn("Could not create context on pooled browser, restarting it: " + e.getMessage());
+            crashed = true;
+            prepareBrowser();
+            context = browser.newContext(options);
+        }
+        contextsOnBrowser++;
+        contextsServed.incrementAndGet();
+        return context;
+    }
+
+    /**
+     * Closes a context handed out by this pool. The browser itself stays up for the next test.
+     */
+    public void release(BrowserContext context) {
+        if (context == null) {
+            return;
+        }
+        try {
+            context.close();
+        } catch (PlaywrightException e) {
+            Log.warn("Error closing browser context: " + e.getMessage());
+            if (browser != null && !browser.isConnected()) {
+                crashed = true;
+            }
+        }
+    }
+
+    /**
+     * Gets the browser currently backing this pool, launching it if needed
+     */
+    public Browser getBrowser() {
+        prepareBrowser();
+        return browser;
+    }
+
+    /**
+     * Closes the pooled browser
+     */
+    public void close() {
+        closeBrowser();
+    }
+
+    private void prepareBrowser() {
+        if (browser != null && (crashed || !browser.isConnected())) {
+            Log.warn("Pooled browser is no longer connected, restarting it");
+            crashRestarts.incrementAndGet();
+            closeBrowser();
+        } else if (browser != null && contextsOnBrowser >= maxContextsPerBrowser) {
+            Log.info("Recycling pooled browser after " + contextsOnBrowser + " contexts");
+            recycles.incrementAndGet();
+            closeBrowser();
+        }
+        if (browser == null) {
+            launchBrowser();
+        }
+    }
+
+    private void launchBrowser() {
+        long start = System.nanoTime();
+        browser = browserType.launch(launchOptions);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        launches.incrementAndGet();
+        launchMillis.addAndGet(elapsed);
+        contextsOnBrowser = 0;
+        crashed = false;
+        browser.onDisconnected(b -> {
+            if (b == browser) {
+                crashed = true;
+            }
+        });
+        Log.info("Launched pooled browser in " + elapsed + " ms");
+    }
+
+    private void closeBrowser() {
+        if (browser == null) {
+            return;
+        }
+        try {
+            browser.close();
+        } catch (PlaywrightException e) {
+            Log.warn("Error closing pooled browser: " + e.getMessage());
+        }
+        browser = null;
+        contextsOnBrowser = 0;
+    }
+
+    /**
+     * Gets a one-line summary of launch cost against context reuse across all pools
+     */
+    public static String getStats() {
+        long launched = launches.get();
+        long served = contextsServed.get();
+        return "Browser pool - launches: " + launched
+                + ", total launch time: " + launchMillis.get() + " ms"
+                + ", contexts served: " + served
+                + ", contexts per launch: " + (launched == 0 ? 0 : served / launched)
+                + ", recycles: " + recycles.get()
+                + ", crash restarts: " + crashRestarts.get();
+    }
+}
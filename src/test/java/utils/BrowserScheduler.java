@@ -0,0 +1,263 @@
+package utils;
+
+import com.microsoft.playwright.Playwright;
+import com.microsoft.playwright.PlaywrightException;
+import com.microsoft.playwright.TimeoutError;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Runs many tests on one browser by letting their threads take turns on a shared Playwright driver.
+ * Playwright objects may be used from several threads as long as only one of them calls into the driver
+ * at a time, so every shared browser has a fair lock, the baton: a test thread holds it for a single
+ * driver call and releases it while it waits. Waits poll a non-blocking check under the baton and sleep
+ * without it, so the tests sharing a browser interleave whenever one of them waits for the page.
+ * <p>
+ * Switch it on with -Dbrowser.multiplex=true. Each browser hosts up to browser.multiplex.contexts
+ * concurrent contexts (default 4); another browser is started when all are full, so test.threads
+ * tests need test.threads / browser.multiplex.contexts browsers. Waits poll every
+ * browser.multiplex.pollMs milliseconds (default 25). Threads that are not attached, e.g. with
+ * multiplexing off, run every call directly.
+ */
+public class BrowserScheduler {
+    private static final List<SharedBrowser> browsers = new ArrayList<>();
+    private static final ThreadLocal<SharedBrowser> attached = new ThreadLocal<>();
+    private static final ThreadLocal<Long> batonTakenAt = new ThreadLocal<>();
+    private static final AtomicLong batonTurns = new AtomicLong();
+    private static final AtomicLong batonWaitNanos = new AtomicLong();
+    private static final AtomicLong batonHoldNanos = new AtomicLong();
+    private static final AtomicLong polls = new AtomicLong();
+    private static final AtomicInteger peakContexts = new AtomicInteger();
+
+    /**
+     * Checks whether tests share browsers in this run (-Dbrowser.multiplex, default false)
+     */
+    public static boolean isEnabled() {
+        return Config.getBoolean("browser.multiplex", false);
+    }
+
+    /**
+     * Assigns the current thread to a shared browser with a free context slot, starting another
+     * browser when all of them are full
+     */
+    public static void attach() {
+        if (attached.get() != null) {
+            return;
+        }
+        SharedBrowser browser = null;
+        synchronized (browsers) {
+            for (SharedBrowser candidate : browsers) {
+                if (candidate.slots.tryAcquire()) {
+                    browser = candidate;
+                    break;
+                }
+            }
+            if (browser == null) {
+                int maxContexts = Math.max(1, Config.getInt("browser.multiplex.contexts", 4));
+                browser = new SharedBrowser(browsers.size() + 1, maxContexts);
+                browser.slots.acquireUninterruptibly();
+                browsers.add(browser);
+            }
+        }
+        int contexts = browser.contexts.incrementAndGet();
+        peakContexts.accumulateAndGet(contexts, Math::max);
+        attached.set(browser);
+        Log.debug("Attached to shared browser {} ({} contexts)", browser.id, contexts);
+    }
+
+    /**
+     * Gives the current thread's context slot back
+     */
+    public static void detach() {
+        SharedBrowser browser = attached.get();
+        if (browser == null) {
+            return;
+        }
+        attached.remove();
+        browser.contexts.decrementAndGet();
+        browser.slots.release();
+    }
+
+    /**
+     * Checks whether the current thread runs on a shared browser
+     */
+    public static boolean isAttached() {
+        return attached.get() != null;
+    }
+
+    /**
+     * Gets the Playwright driver of the current thread's shared browser
+     */
+    static Playwright getPlaywright() {
+        return attached.get().playwright;
+    }
+
+    /**
+     * Gets the browser pool of the current thread's shared browser
+     */
+    static BrowserPool getBrowserPool() {
+        return attached.get().browserPool;
+    }
+
+    /**
+     * Takes the baton of the current thread's shared browser, waiting for its turn. Calls nest;
+     * every lock() needs a matching unlock(). Does nothing when the thread is not attached.
+     */
+    public static void lock() {
+        SharedBrowser browser = attached.get();
+        if (browser == null) {
+            return;
+        }
+        if (browser.baton.isHeldByCurrentThread()) {
+            browser.baton.lock();
+            return;
+        }
+        long start = System.nanoTime();
+        browser.baton.lock();
+        long now = System.nanoTime();
+        batonWaitNanos.addAndGet(now - start);
+        batonTurns.incrementAndGet();
+        batonTakenAt.set(now);
+    }
+
+    /**
+     * Releases the baton taken by {@link #lock()}
+     */
+    public static void unlock() {
+        SharedBrowser browser = attached.get();
+        if (browser == null) {
+            return;
+        }
+        if (browser.baton.getHoldCount() == 1) {
+            batonHoldNanos.addAndGet(System.nanoTime() - batonTakenAt.get());
+        }
+        browser.baton.unlock();
+    }
+
+    /**
+     * Runs driver calls holding the baton
+     */
+    public static <T> T call(Supplier<T> calls) {
+        lock();
+        try {
+            return calls.get();
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Runs driver calls holding the baton
+     */
+    public static void run(Runnable calls) {
+        lock();
+        try {
+            calls.run();
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Waits until the non-blocking check passes. The check runs holding the baton; in between the thread
+     * sleeps without it so other tests on the browser can run. A check failing with a driver error, e.g.
+     * because the page is navigating, counts as not ready.
+     *
+     * @throws TimeoutError when the check has not passed within the timeout
+     */
+    public static void pollUntil(BooleanSupplier check, double timeoutMillis, String description) {
+        long deadline = System.nanoTime() + (long) (timeoutMillis * 1_000_000);
+        long pollNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, Config.getInt("browser.multiplex.pollMs", 25)));
+        while (true) {
+            boolean ready;
+            try {
+                ready = call(check::getAsBoolean);
+            } catch (PlaywrightException e) {
+                ready = false;
+            }
+            polls.incrementAndGet();
+            if (ready) {
+                return;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new TimeoutError("Timeout " + (long) timeoutMillis + "ms exceeded waiting for " + description);
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(Math.min(pollNanos, remaining));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PlaywrightException("Interrupted while waiting for " + description);
+            }
+        }
+    }
+
+    /**
+     * Closes every shared browser and its driver. Call once all tests have finished.
+     */
+    public static void closeAll() {
+        synchronized (browsers) {
+            for (SharedBrowser browser : browsers) {
+                browser.close();
+            }
+            browsers.clear();
+        }
+    }
+
+    /**
+     * Gets a one-line summary of browsers shared, contexts per browser and time spent waiting for the baton
+     */
+    public static String getStats() {
+        long turns = batonTurns.get();
+        int browserCount;
+        synchronized (browsers) {
+            browserCount = browsers.size();
+        }
+        return "Browser scheduler - shared browsers: " + browserCount
+                + ", peak contexts on one browser: " + peakContexts.get()
+                + ", baton turns: " + turns
+                + ", avg wait for baton: " + (turns == 0 ? 0 : batonWaitNanos.get() / turns / 1000) + " us"
+                + ", avg hold: " + (turns == 0 ? 0 : batonHoldNanos.get() / turns / 1000) + " us"
+                + ", wait polls: " + polls.get();
+    }
+
+    /**
+     * One browser with its own driver, shared by up to a fixed number of test threads
+     */
+    private static class SharedBrowser {
+        private final int id;
+        private final Playwright playwright;
+        private final BrowserPool browserPool;
+        private final ReentrantLock baton = new ReentrantLock(true);
+        private final Semaphore slots;
+        private final AtomicInteger contexts = new AtomicInteger();
+
+        SharedBrowser(int id, int maxContexts) {
+            Log.info("Starting shared browser {} for up to {} concurrent contexts", id, maxContexts);
+            this.id = id;
+            this.playwright = Playwright.create();
+            // Never recycled on a context count or a failed call: other tests still have contexts open on it
+            this.browserPool = new BrowserPool(playwright.chromium(), PlaywrightManager.getLaunchOptions(),
+                    Integer.MAX_VALUE, true);
+            this.slots = new Semaphore(maxContexts, true);
+        }
+
+        void close() {
+            Log.info("Closing shared browser {}", id);
+            try {
+                browserPool.close();
+                playwright.close();
+            } catch (Exception e) {
+                Log.warn("Error closing shared browser " + id + ": " + e.getMessage());
+            }
+        }
+    }
+}
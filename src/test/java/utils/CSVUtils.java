@@ -2,11 +2,13 @@ package utils;
 
 import org.testng.annotations.DataProvider;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -20,57 +22,109 @@ public class CSVUtils {
      * Reads test data from CSV file and returns as Object array for TestNG DataProvider
      */
     public static Object[][] getTestDataFromCSV(String fileName) {
-        List<Map<String, String>> testDataList = new ArrayList<>();
+        List<Object[]> testDataList = new ArrayList<>();
+        getTestDataIteratorFromCSV(fileName).forEachRemaining(testDataList::add);
+        return testDataList.toArray(new Object[0][]);
+    }
+
+    /**
+     * Reads test data from CSV file as a TestNG DataProvider iterator. The first line contains the headers.
+     * Rows are read lazily, one per call: from the binary snapshot of the file when it is current, which is
+     * compiled on first use, and otherwise from the file itself.
+     */
+    public static Iterator<Object[]> getTestDataIteratorFromCSV(String fileName) {
         String filePath = TEST_DATA_PATH + fileName;
-        
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            String[] headers = null;
-            int lineNumber = 0;
-            
-            while ((line = br.readLine()) != null) {
-                lineNumber++;
-                String[] values = line.split(",");
-                
-                if (lineNumber == 1) {
-                    // First line contains headers
-                    headers = values;
-                } else {
-                    // Data rows
-                    Map<String, String> rowData = new HashMap<>();
-                    for (int i = 0; i < headers.length && i < values.length; i++) {
-                        rowData.put(headers[i].trim(), values[i].trim());
-                    }
-                    testDataList.add(rowData);
+        if (!DataSnapshot.isEnabled()) {
+            return readRows(filePath);
+        }
+        Iterator<Map<String, String>> rows = DataSnapshot.iterate(filePath, () -> {
+            Iterator<Object[]> parsed = readRows(filePath);
+            return new Iterator<Map<String, String>>() {
+                @Override
+                public boolean hasNext() {
+                    return parsed.hasNext();
                 }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public Map<String, String> next() {
+                    return (Map<String, String>) parsed.next()[0];
+                }
+            };
+        });
+        return new Iterator<Object[]>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                return new Object[]{rows.next()};
             }
-            
+        };
+    }
+
+    /**
+     * Parses the CSV file lazily, one row per call
+     */
+    private static Iterator<Object[]> readRows(String filePath) {
+        CsvReader reader;
+        try {
+            reader = new CsvReader(Paths.get(filePath));
         } catch (IOException e) {
             Log.error("Error reading CSV file: " + e.getMessage(), e);
+            return Collections.emptyIterator();
         }
-
-        // Convert List to Object[][]
-        Object[][] testData = new Object[testDataList.size()][1];
-        for (int i = 0; i < testDataList.size(); i++) {
-            testData[i][0] = testDataList.get(i);
+        if (!reader.hasNext()) {
+            closeQuietly(reader);
+            return Collections.emptyIterator();
         }
+        RowSchema schema = new RowSchema(Arrays.asList(reader.next()));
+
+        return new Iterator<Object[]>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    if (reader.hasNext()) {
+                        return true;
+                    }
+                } catch (UncheckedIOException e) {
+                    Log.error("Error reading CSV file: " + e.getMessage(), e);
+                }
+                closeQuietly(reader);
+                return false;
+            }
+
+            @Override
+            public Object[] next() {
+                // Columns missing from a short line stay absent, extra values are dropped
+                return new Object[]{new DataRow(schema, Arrays.copyOf(reader.next(), schema.size()))};
+            }
+        };
+    }
 
-        return testData;
+    private static void closeQuietly(CsvReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            Log.warn("Error closing CSV file: " + e.getMessage());
+        }
     }
 
     /**
      * DataProvider for login test data from CSV
      */
     @DataProvider(name = "loginDataCSV")
-    public static Object[][] getLoginDataFromCSV() {
-        return getTestDataFromCSV("LoginData.csv");
+    public static Iterator<Object[]> getLoginDataFromCSV() {
+        return getTestDataIteratorFromCSV("LoginData.csv");
     }
 
     /**
      * DataProvider for account test data from CSV
      */
     @DataProvider(name = "accountDataCSV")
-    public static Object[][] getAccountDataFromCSV() {
-        return getTestDataFromCSV("AccountData.csv");
+    public static Iterator<Object[]> getAccountDataFromCSV() {
+        return getTestDataIteratorFromCSV("AccountData.csv");
     }
 }
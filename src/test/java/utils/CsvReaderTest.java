@@ -0,0 +1,117 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Pins the CSV dialect every CSV data provider depends on
+ */
+public class CsvReaderTest {
+    private Path dir;
+
+    @BeforeClass
+    public void createDirectory() throws IOException {
+        dir = Files.createTempDirectory("csv-reader-test");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    public void quotedFieldKeepsCommas() throws IOException {
+        List<String[]> rows = read("Name,City\n\"Acme, Inc.\",Berlin\n");
+        Assert.assertEquals(rows.get(1), new String[]{"Acme, Inc.", "Berlin"});
+    }
+
+    @Test
+    public void doubledQuotesBecomeOneQuote() throws IOException {
+        List<String[]> rows = read("Name\n\"Say \"\"hi\"\"\"\n");
+        Assert.assertEquals(rows.get(1), new String[]{"Say \"hi\""});
+    }
+
+    @Test
+    public void quotedFieldKeepsLineBreaks() throws IOException {
+        List<String[]> rows = read("Street,City\r\n\"Line 1\r\nLine 2\nLine 3\",Paris\r\n");
+        Assert.assertEquals(rows.size(), 2);
+        Assert.assertEquals(rows.get(1), new String[]{"Line 1\r\nLine 2\nLine 3", "Paris"});
+    }
+
+    @Test
+    public void lineEndingsAreCrLfLfOrCr() throws IOException {
+        List<String[]> rows = read("A\r\n1\n2\r3\r\n");
+        Assert.assertEquals(rows.size(), 4);
+        Assert.assertEquals(rows.get(3), new String[]{"3"});
+    }
+
+    @Test
+    public void byteOrderMarkIsSkipped() throws IOException {
+        List<String[]> rows = read("\uFEFFTestCase,Username\nLogin,user@example.com\n");
+        Assert.assertEquals(rows.get(0), new String[]{"TestCase", "Username"});
+    }
+
+    @Test
+    public void lastLineNeedsNoLineBreak() throws IOException {
+        List<String[]> rows = read("A,B\n1,2");
+        Assert.assertEquals(rows.size(), 2);
+        Assert.assertEquals(rows.get(1), new String[]{"1", "2"});
+    }
+
+    @Test
+    public void unquotedFieldsAreTrimmedAndQuotedKeptAsIs() throws IOException {
+        List<String[]> rows = read("A,B\n  x  ,\" y \"\n");
+        Assert.assertEquals(rows.get(1), new String[]{"x", " y "});
+    }
+
+    @Test
+    public void blankLinesAreSkipped() throws IOException {
+        List<String[]> rows = read("A\n\n1\r\n\r\n2\n");
+        Assert.assertEquals(rows.size(), 3);
+        Assert.assertEquals(rows.get(2), new String[]{"2"});
+    }
+
+    @Test
+    public void shortAndLongRowsKeepTheirWidth() throws IOException {
+        List<String[]> rows = read("A,B,C\n1\n1,2,3,4\n1,,\n");
+        Assert.assertEquals(rows.get(1), new String[]{"1"});
+        Assert.assertEquals(rows.get(2), new String[]{"1", "2", "3", "4"});
+        Assert.assertEquals(rows.get(3), new String[]{"1", "", ""});
+    }
+
+    @Test
+    public void multiByteCharactersAcrossBufferBoundaries() throws IOException {
+        StringBuilder csv = new StringBuilder("Name\n");
+        for (int i = 0; i < 20_000; i++) {
+            csv.append("Zürich ").append(i).append('\n');
+        }
+        List<String[]> rows = read(csv.toString());
+        Assert.assertEquals(rows.size(), 20_001);
+        Assert.assertEquals(rows.get(20_000), new String[]{"Zürich 19999"});
+    }
+
+    private List<String[]> read(String content) throws IOException {
+        Path file = Files.createTempFile(dir, "data", ".csv");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        List<String[]> rows = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(file)) {
+            reader.forEachRemaining(rows::add);
+        }
+        return rows;
+    }
+}
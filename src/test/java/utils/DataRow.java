@@ -0,0 +1,98 @@
+package utils;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only row of test data: the values of one row in column order plus a reference to the shared RowSchema.
+ * Behaves as a Map from header name to value, so tests keep calling testData.get("Username").
+ * A null value means the row had no such column and the key is left out of the map.
+ */
+public final class DataRow extends AbstractMap<String, String> {
+    private final RowSchema schema;
+    private final String[] values;
+
+    /**
+     * Wraps the values of one row. The array is owned by the row and must not be modified afterwards.
+     */
+    public DataRow(RowSchema schema, String[] values) {
+        if (values.length != schema.size()) {
+            throw new IllegalArgumentException("Expected " + schema.size() + " values but got " + values.length);
+        }
+        this.schema = schema;
+        this.values = values;
+    }
+
+    public RowSchema getSchema() {
+        return schema;
+    }
+
+    @Override
+    public String get(Object key) {
+        int column = schema.indexOf(key);
+        return column < 0 ? null : values[column];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null && schema.isVisible(i)) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<Entry<String, String>>() {
+                    private int column = advance(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return column < values.length;
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String, String> entry =
+                                new SimpleImmutableEntry<>(schema.getColumn(column), values[column]);
+                        column = advance(column + 1);
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return DataRow.this.size();
+            }
+        };
+    }
+
+    /**
+     * Gets the first column from the given one that holds a value and is not shadowed by a repeated header
+     */
+    private int advance(int column) {
+        while (column < values.length && (values[column] == null || !schema.isVisible(column))) {
+            column++;
+        }
+        return column;
+    }
+}
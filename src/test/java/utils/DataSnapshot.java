@@ -0,0 +1,359 @@
+package utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Precompiled binary copy of one sheet or CSV file, stored under target/data-snapshots.
+ * The first run parses the source and writes the snapshot; later runs memory-map the snapshot instead
+ * of parsing the source again. A snapshot is rebuilt whenever the SHA-256 of its source changes.
+ * <p>
+ * Layout, big-endian: magic, format version, source SHA-256, source modification time and size,
+ * then a string table (count, then length-prefixed UTF-8 strings), the column names and the rows,
+ * each stored as its number of columns followed by indexes into the string table (-1 for an absent value).
+ * Repeated values such as URLs or account types are stored once. Rows are written as the parser produces
+ * them and can be read back one at a time, so neither side holds more than the distinct values.
+ * <p>
+ * Disable with -Ddata.snapshots=false; change the location with -Ddata.snapshots.dir.
+ */
+public class DataSnapshot {
+    private static final int MAGIC = 0x54445350; // "TDSP"
+    private static final int VERSION = 2;
+    private static final int HASH_LENGTH = 32;
+    private static final int STAMP_OFFSET = 8 + HASH_LENGTH;
+
+    private static final AtomicLong loads = new AtomicLong();
+    private static final AtomicLong compiles = new AtomicLong();
+    private static final AtomicLong loadMicros = new AtomicLong();
+
+    /**
+     * Checks whether snapshots are enabled (-Ddata.snapshots, default true)
+     */
+    public static boolean isEnabled() {
+        return Config.getBoolean("data.snapshots", true);
+    }
+
+    /**
+     * Gets the rows of a source file from its snapshot when it is current. Otherwise runs the parser,
+     * writes a new snapshot from its rows and returns them. A parser returning null is passed through.
+     *
+     * @param sourcePath the Excel or CSV file
+     * @param part       the sheet name, or null for a file with a single table
+     */
+    public static List<Map<String, String>> load(String sourcePath, String part,
+                                                 Supplier<List<Map<String, String>>> parser) {
+        if (!isEnabled()) {
+            return parser.get();
+        }
+        Path source = Paths.get(sourcePath);
+        Path snapshot = snapshotPath(source, part);
+        String name = part == null ? sourcePath : sourcePath + "#" + part;
+        long start = System.nanoTime();
+        Iterator<Map<String, String>> snapshotRows = open(snapshot, source);
+        if (snapshotRows != null) {
+            List<Map<String, String>> rows = new ArrayList<>();
+            snapshotRows.forEachRemaining(rows::add);
+            long micros = recordLoad(start);
+            Log.info("Loaded " + rows.size() + " rows of " + name + " from snapshot in " + micros / 1000.0 + " ms");
+            return rows;
+        }
+
+        List<Map<String, String>> rows = parser.get();
+        if (rows != null) {
+            compile(snapshot, source, name, rows.iterator());
+        }
+        return rows;
+    }
+
+    /**
+     * Streams the rows of a single-table source from its snapshot, decoding one row per call. When the
+     * snapshot is missing or stale the parser's rows are written to a new snapshot first, one at a time,
+     * and then read back from it; when that fails the parser's rows are returned directly.
+     *
+     * @param sourcePath the CSV file
+     * @param parser     streams the rows of the source
+     */
+    public static Iterator<Map<String, String>> iterate(String sourcePath,
+                                                        Supplier<Iterator<Map<String, String>>> parser) {
+        if (!isEnabled()) {
+            return parser.get();
+        }
+        Path source = Paths.get(sourcePath);
+        Path snapshot = snapshotPath(source, null);
+        long start = System.nanoTime();
+        Iterator<Map<String, String>> rows = open(snapshot, source);
+        if (rows == null && compile(snapshot, source, sourcePath, parser.get())) {
+            start = System.nanoTime();
+            rows = open(snapshot, source);
+        }
+        if (rows == null) {
+            return parser.get();
+        }
+        long micros = recordLoad(start);
+        Log.info("Opened snapshot of " + sourcePath + " in " + micros / 1000.0 + " ms");
+        return rows;
+    }
+
+    /**
+     * Gets a one-line summary of snapshot loads and compilations
+     */
+    public static String getStats() {
+        long count = loads.get();
+        return "Data snapshots - loaded: " + count + ", compiled: " + compiles.get()
+                + ", avg load: " + (count == 0 ? 0 : loadMicros.get() / count / 1000.0) + " ms";
+    }
+
+    private static long recordLoad(long startNanos) {
+        long micros = (System.nanoTime() - startNanos) / 1000;
+        loads.incrementAndGet();
+        loadMicros.addAndGet(micros);
+        return micros;
+    }
+
+    private static boolean compile(Path snapshot, Path source, String name, Iterator<Map<String, String>> rows) {
+        try {
+            long count = write(snapshot, source, rows);
+            compiles.incrementAndGet();
+            Log.info("Compiled snapshot of " + name + " with " + count + " rows to " + snapshot);
+            return true;
+        } catch (IOException e) {
+            Log.warn("Could not write snapshot " + snapshot + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static Path snapshotPath(Path source, String part) {
+        String fileName = source.getFileName().toString();
+        if (part != null) {
+            fileName += "_" + part;
+        }
+        return Paths.get(Config.get("data.snapshots.dir", "target/data-snapshots"),
+                fileName.replaceAll("[^A-Za-z0-9._-]", "_") + ".bin");
+    }
+
+    /**
+     * Opens a snapshot for reading, or returns null when it is missing, unreadable or was built from another
+     * version of the source. The source is only hashed when its modification time or size differ from the
+     * recorded ones; when the content is unchanged, e.g. after a checkout, the recorded ones are updated.
+     */
+    private static Iterator<Map<String, String>> open(Path snapshot, Path source) {
+        if (!Files.isRegularFile(snapshot) || !Files.isRegularFile(source)) {
+            return null;
+        }
+        try {
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            if (buffer.remaining() < STAMP_OFFSET + 16 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            byte[] hash = new byte[HASH_LENGTH];
+            buffer.get(hash);
+            long modified = buffer.getLong();
+            long size = buffer.getLong();
+            long sourceModified = Files.getLastModifiedTime(source).toMillis();
+            long sourceSize = Files.size(source);
+            if (modified != sourceModified || size != sourceSize) {
+                if (!Arrays.equals(hash, hash(source))) {
+                    Log.info("Source " + source + " changed, rebuilding its snapshot");
+                    return null;
+                }
+                updateStamp(snapshot, sourceModified, sourceSize);
+            }
+            return new SnapshotRows(buffer);
+        } catch (IOException | RuntimeException e) {
+            Log.warn("Ignoring unreadable snapshot " + snapshot + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Records the source's current modification time and size so the next load does not hash it again
+     */
+    private static void updateStamp(Path snapshot, long modified, long size) {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            ByteBuffer stamp = ByteBuffer.allocate(16).putLong(modified).putLong(size);
+            stamp.flip();
+            channel.write(stamp, STAMP_OFFSET);
+        } catch (IOException e) {
+            Log.warn("Could not update snapshot " + snapshot + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the rows to a temporary file as they come, then the string table, columns and those rows to
+     * another temporary file that replaces the snapshot, so readers never see a partial snapshot
+     *
+     * @return the number of rows written
+     */
+    private static long write(Path snapshot, Path source, Iterator<Map<String, String>> rows) throws IOException {
+        byte[] hash = hash(source);
+        long modified = Files.getLastModifiedTime(source).toMillis();
+        long size = Files.size(source);
+
+        Files.createDirectories(snapshot.getParent());
+        String prefix = snapshot.getFileName().toString();
+        Path rowsFile = Files.createTempFile(snapshot.getParent(), prefix, ".rows");
+        Path temp = Files.createTempFile(snapshot.getParent(), prefix, ".tmp");
+        try {
+            // Columns in first-seen order, every distinct string once
+            Map<String, Integer> columns = new LinkedHashMap<>();
+            Map<String, Integer> table = new HashMap<>();
+            List<String> strings = new ArrayList<>();
+            long rowCount = 0;
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(rowsFile), 64 * 1024))) {
+                while (rows.hasNext()) {
+                    Map<String, String> row = rows.next();
+                    for (String column : row.keySet()) {
+                        if (!columns.containsKey(column)) {
+                            columns.put(column, intern(column, table, strings));
+                        }
+                    }
+                    int[] indexes = new int[columns.size()];
+                    Arrays.fill(indexes, -1);
+                    int column = 0;
+                    for (String name : columns.keySet()) {
+                        String value = row.get(name);
+                        if (value != null) {
+                            indexes[column] = intern(value, table, strings);
+                        }
+                        column++;
+                    }
+                    out.writeInt(indexes.length);
+                    for (int index : indexes) {
+                        out.writeInt(index);
+                    }
+                    rowCount++;
+                }
+            }
+
+            try (OutputStream file = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 64 * 1024))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.write(hash);
+                out.writeLong(modified);
+                out.writeLong(size);
+                out.writeInt(strings.size());
+                for (String value : strings) {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+                out.writeInt(columns.size());
+                for (int index : columns.values()) {
+                    out.writeInt(index);
+                }
+                out.writeLong(rowCount);
+                Files.copy(rowsFile, out);
+            }
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return rowCount;
+        } finally {
+            Files.deleteIfExists(temp);
+            Files.deleteIfExists(rowsFile);
+        }
+    }
+
+    private static int intern(String value, Map<String, Integer> table, List<String> strings) {
+        Integer index = table.get(value);
+        if (index == null) {
+            index = strings.size();
+            table.put(value, index);
+            strings.add(value);
+        }
+        return index;
+    }
+
+    private static byte[] hash(Path source) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Rows of a mapped snapshot, decoded one per call. The deduplicated string table is decoded once,
+     * so rows share one String per distinct value.
+     */
+    private static class SnapshotRows implements Iterator<Map<String, String>> {
+        private final ByteBuffer buffer;
+        private final String[] strings;
+        private final RowSchema schema;
+        private long remaining;
+
+        SnapshotRows(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            List<String> columnNames = new ArrayList<>();
+            int columnCount = buffer.getInt();
+            for (int i = 0; i < columnCount; i++) {
+                columnNames.add(strings[buffer.getInt()]);
+            }
+            this.schema = new RowSchema(columnNames);
+            this.remaining = buffer.getLong();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public Map<String, String> next() {
+            if (remaining <= 0) {
+                throw new NoSuchElementException();
+            }
+            remaining--;
+            // Rows written before a column was first seen are shorter; the missing values stay absent
+            String[] values = new String[schema.size()];
+            int width = buffer.getInt();
+            for (int i = 0; i < width; i++) {
+                int index = buffer.getInt();
+                values[i] = index < 0 ? null : strings[index];
+            }
+            return new DataRow(schema, values);
+        }
+    }
+}
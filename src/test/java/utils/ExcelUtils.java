@@ -1,13 +1,10 @@
 package utils;
 
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.testng.annotations.DataProvider;
 
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -18,51 +15,14 @@ public class ExcelUtils {
     private static final String TEST_DATA_PATH = "testData/TestData.xlsx";
 
     /**
-     * Reads test data from Excel file and returns as Object array for TestNG DataProvider
+     * Reads test data from Excel file and returns as Object array for TestNG DataProvider.
+     * Parsed sheets are cached for the whole run and re-read only when the workbook changes.
+     * A current binary snapshot of the sheet is loaded instead of parsing the workbook with POI.
      */
     public static Object[][] getTestData(String sheetName) {
-        List<Map<String, String>> testDataList = new ArrayList<>();
-        
-        try (FileInputStream fis = new FileInputStream(TEST_DATA_PATH);
-             Workbook workbook = new XSSFWorkbook(fis)) {
-            
-            Sheet sheet = workbook.getSheet(sheetName);
-            if (sheet == null) {
-                Log.error("Sheet '" + sheetName + "' not found in Excel file");
-                return new Object[0][0];
-            }
-
-            // Get header row
-            Row headerRow = sheet.getRow(0);
-            if (headerRow == null) {
-                Log.error("Header row not found in sheet '" + sheetName + "'");
-                return new Object[0][0];
-            }
-
-            // Get column names
-            List<String> columnNames = new ArrayList<>();
-            for (Cell cell : headerRow) {
-                columnNames.add(getCellValueAsString(cell));
-            }
-
-            // Read data rows
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row != null) {
-                    Map<String, String> rowData = new HashMap<>();
-                    for (int j = 0; j < columnNames.size(); j++) {
-                        Cell cell = row.getCell(j);
-                        String columnName = columnNames.get(j);
-                        String cellValue = getCellValueAsString(cell);
-                        rowData.put(columnName, cellValue);
-                    }
-                    testDataList.add(rowData);
-                }
-            }
-
-        } catch (IOException e) {
-            Log.error("Error reading Excel file: " + e.getMessage(), e);
-        }
+        List<Map<String, String>> testDataList = SheetCache.get(TEST_DATA_PATH, sheetName,
+                () -> DataSnapshot.load(TEST_DATA_PATH, sheetName,
+                        () -> WorkbookSheetReader.readSheet(TEST_DATA_PATH, sheetName)));
 
         // Convert List to Object[][]
         Object[][] testData = new Object[testDataList.size()][1];
@@ -74,44 +34,46 @@ public class ExcelUtils {
     }
 
     /**
-     * Gets cell value as string regardless of cell type
+     * Returns test data lazily as a DataProvider iterator. With -Dexcel.streaming=true rows are
+     * streamed from the sheet one at a time; otherwise the cached in-memory rows are iterated.
      */
-    private static String getCellValueAsString(Cell cell) {
-        if (cell == null) {
-            return "";
+    public static Iterator<Object[]> getTestDataIterator(String sheetName) {
+        if (!Config.getBoolean("excel.streaming", false)) {
+            return Arrays.asList(getTestData(sheetName)).iterator();
         }
-
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                } else {
-                    return String.valueOf((long) cell.getNumericCellValue());
-                }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return cell.getCellFormula();
-            default:
-                return "";
+        XlsxStreamReader reader;
+        try {
+            reader = new XlsxStreamReader(TEST_DATA_PATH, sheetName);
+        } catch (Exception e) {
+            Log.error("Error streaming Excel file: " + e.getMessage(), e);
+            return Collections.emptyIterator();
         }
+        return new Iterator<Object[]>() {
+            @Override
+            public boolean hasNext() {
+                return reader.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                return new Object[]{reader.next()};
+            }
+        };
     }
 
     /**
      * DataProvider for login test data
      */
     @DataProvider(name = "loginData")
-    public static Object[][] getLoginData() {
-        return getTestData("LoginData");
+    public static Iterator<Object[]> getLoginData() {
+        return getTestDataIterator("LoginData");
     }
 
     /**
      * DataProvider for account test data
      */
     @DataProvider(name = "accountData")
-    public static Object[][] getAccountData() {
-        return getTestData("AccountData");
+    public static Iterator<Object[]> getAccountData() {
+        return getTestDataIterator("AccountData");
     }
 }
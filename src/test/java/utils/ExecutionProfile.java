@@ -0,0 +1,106 @@
+package utils;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserType;
+
+/**
+ * Named execution profiles holding the browser launch and context settings for a run.
+ * Select one with -Dexecution.profile=throughput or the EXECUTION_PROFILE environment variable.
+ */
+public enum ExecutionProfile {
+    /**
+     * Local work: headed browser, slowed down actions and every artifact kept. Tracing is off unless
+     * asked for with -Dbrowser.tracing=true.
+     */
+    DEBUG(false, 1000, false, ArtifactPolicy.ALWAYS),
+
+    /**
+     * CI runs: headless, no artificial delay, no tracing, artifacts kept only for failed tests
+     */
+    THROUGHPUT(true, 0, false, ArtifactPolicy.ON_FAILURE);
+
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36";
+
+    private final boolean headless;
+    private final int slowMo;
+    private final boolean tracing;
+    private final ArtifactPolicy artifactPolicy;
+
+    ExecutionProfile(boolean headless, int slowMo, boolean tracing, ArtifactPolicy artifactPolicy) {
+        this.headless = headless;
+        this.slowMo = slowMo;
+        this.tracing = tracing;
+        this.artifactPolicy = artifactPolicy;
+    }
+
+    /**
+     * Gets the profile selected for this run, DEBUG when none is set
+     */
+    public static ExecutionProfile current() {
+        String name = Config.get("execution.profile", "debug");
+        try {
+            return valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            Log.warn("Unknown execution profile '" + name + "', using DEBUG");
+            return DEBUG;
+        }
+    }
+
+    public boolean isHeadless() {
+        return Config.getBoolean("browser.headless", headless);
+    }
+
+    public int getSlowMo() {
+        return Config.getInt("browser.slowMo", slowMo);
+    }
+
+    public int getViewportWidth() {
+        return Config.getInt("browser.viewport.width", 1920);
+    }
+
+    public int getViewportHeight() {
+        return Config.getInt("browser.viewport.height", 1080);
+    }
+
+    public boolean isTracing() {
+        return Config.getBoolean("browser.tracing", tracing);
+    }
+
+    public ArtifactPolicy getArtifactPolicy() {
+        String value = Config.get("artifact.policy", null);
+        if (value == null) {
+            return artifactPolicy;
+        }
+        try {
+            return ArtifactPolicy.valueOf(value.toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            Log.warn("Unknown artifact policy '" + value + "', using " + artifactPolicy);
+            return artifactPolicy;
+        }
+    }
+
+    /**
+     * Builds the browser launch options for this profile
+     */
+    public BrowserType.LaunchOptions getLaunchOptions() {
+        return new BrowserType.LaunchOptions()
+                .setHeadless(isHeadless())
+                .setSlowMo(getSlowMo());
+    }
+
+    /**
+     * Builds the browser context options for this profile
+     */
+    public Browser.NewContextOptions getContextOptions() {
+        return new Browser.NewContextOptions()
+                .setViewportSize(getViewportWidth(), getViewportHeight())
+                .setUserAgent(USER_AGENT);
+    }
+
+    @Override
+    public String toString() {
+        return name().toLowerCase() + " (headless: " + isHeadless() + ", slowMo: " + getSlowMo()
+                + " ms, viewport: " + getViewportWidth() + "x" + getViewportHeight()
+                + ", tracing: " + isTracing() + ", artifacts: " + getArtifactPolicy() + ")";
+    }
+}
@@ -0,0 +1,429 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import org.testng.xml.internal.Parser;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Splits the TestNG suite across several worker JVMs. Inside one JVM every Playwright command goes through
+ * the driver process of its Playwright instance, so past a point more threads only queue on that pipe; each
+ * worker has its own drivers and browsers and the workers share nothing but the disk.
+ * <p>
+ * The test methods of testng.xml (-Dfork.suite) are dealt round-robin to the workers, which run
+ * org.testng.TestNG on a generated suite of their own with the same listeners. Data-driven rows stay with
+ * their method. -Dfork.count fixes the number of workers; by default it is the smaller of available cores /
+ * fork.cores.per.worker (default 2) and free memory / fork.worker.memory.mb (default 1024), never more than
+ * the number of methods. Workers inherit the -D and -X options of this JVM, e.g. test.parallel, and split the
+ * cores between them for test.threads unless it is given.
+ * <p>
+ * All workers write Allure results to the same directory; result files have unique names, so the report
+ * covers the whole run. Their JUnit reports are merged per class into target/surefire-reports and their
+ * screenshot indexes into screenshots/index.json; both the worker directories and target/surefire-reports are
+ * cleared first, so reports of an earlier run cannot be merged in. Console output, logs, TestNG reports and action latency
+ * histograms stay per worker under target/forks/fork-N and logs/automation-fork-N.log.
+ */
+public class ForkRunner {
+    private static final Path FORK_DIR = Paths.get("target", "forks");
+    private static final Path SUREFIRE_DIR = Paths.get("target", "surefire-reports");
+    private static final Path SCREENSHOT_INDEX = Paths.get("screenshots", "index.json");
+    private static final List<String> COUNT_ATTRIBUTES = Arrays.asList("tests", "failures", "errors", "skipped", "ignored");
+    // Set per worker by the runner; standin.port would make the workers' stand-ins collide
+    private static final List<String> WORKER_SETTINGS = Arrays.asList("fork.", "log.file=", "screenshots.index=",
+            "action.metrics.file=", "standin.port=");
+
+    private final Path suiteFile;
+    private final int configuredForks;
+
+    public ForkRunner(Path suiteFile, int configuredForks) {
+        this.suiteFile = suiteFile;
+        this.configuredForks = configuredForks;
+    }
+
+    /**
+     * Builds a runner from the fork.* settings
+     */
+    public static ForkRunner fromConfig() {
+        return new ForkRunner(Paths.get(Config.get("fork.suite", "testng.xml")), Config.getInt("fork.count", 0));
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.exit(fromConfig().run());
+    }
+
+    /**
+     * Runs the suite in the workers, waits for all of them and merges their reports
+     *
+     * @return 0 when every worker passed, 1 when a test failed or a worker did not finish its suite
+     */
+    public int run() throws Exception {
+        List<XmlSuite> suites = new Parser(suiteFile.toString()).parseToList();
+        List<TestMethod> methods = collectMethods(suites);
+        if (methods.isEmpty()) {
+            Log.warn("No test methods found in " + suiteFile);
+            return 1;
+        }
+        int forks = resolveForkCount(methods.size());
+        Log.info("Splitting {} test methods of {} across {} worker JVMs", methods.size(), suiteFile, forks);
+
+        List<List<TestMethod>> shards = new ArrayList<>();
+        for (int i = 0; i < forks; i++) {
+            shards.add(new ArrayList<>());
+        }
+        for (int i = 0; i < methods.size(); i++) {
+            shards.get(i % forks).add(methods.get(i));
+        }
+
+        // Shards change with the fork count and the suite, so nothing of an earlier run may be merged
+        deleteRecursively(SUREFIRE_DIR);
+        long start = System.nanoTime();
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < forks; i++) {
+            Path workerDir = FORK_DIR.resolve("fork-" + (i + 1));
+            deleteRecursively(workerDir);
+            Files.createDirectories(workerDir);
+            List<String> suiteFiles = writeSuites(suites, shards.get(i), workerDir);
+            processes.add(startWorker(i + 1, forks, workerDir, suiteFiles));
+            Log.info("Started worker {} with {} test methods", i + 1, shards.get(i).size());
+        }
+
+        boolean workersPassed = true;
+        for (int i = 0; i < forks; i++) {
+            int exitCode = processes.get(i).waitFor();
+            // TestNG exits with 2 when tests were only skipped, which does not fail the build
+            if (exitCode != 0 && exitCode != 2) {
+                workersPassed = false;
+                Log.warn("Worker " + (i + 1) + " exited with code " + exitCode + ", see "
+                        + FORK_DIR.resolve("fork-" + (i + 1)).resolve("output.log"));
+            }
+        }
+        long seconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start);
+
+        Map<String, Long> totals = mergeJUnitReports(forks);
+        mergeScreenshotIndexes(forks);
+        Log.info("Fork run finished in {} s on {} workers - tests: {}, failures: {}, errors: {}, skipped: {}",
+                seconds, forks, totals.get("tests"), totals.get("failures"), totals.get("errors"),
+                totals.get("skipped"));
+        return workersPassed && totals.get("failures") == 0 && totals.get("errors") == 0 ? 0 : 1;
+    }
+
+    /**
+     * Gets the number of workers: fork.count when set, otherwise as many as cores and free memory allow
+     */
+    int resolveForkCount(int methodCount) {
+        int forks = configuredForks;
+        if (forks <= 0) {
+            int cores = Runtime.getRuntime().availableProcessors();
+            int byCores = Math.max(1, cores / Math.max(1, Config.getInt("fork.cores.per.worker", 2)));
+            long freeMb = getFreeMemoryMb();
+            int byMemory = freeMb < 0 ? byCores
+                    : (int) Math.max(1, freeMb / Math.max(1, Config.getInt("fork.worker.memory.mb", 1024)));
+            forks = Math.min(byCores, byMemory);
+            Log.info("Sized worker count from {} cores and {} MB free memory: {}", cores, freeMb, forks);
+        }
+        return Math.max(1, Math.min(forks, methodCount));
+    }
+
+    /**
+     * Lists the test methods of every class in the suites, in suite order and by name within a class.
+     * Classes that include methods explicitly keep exactly those.
+     */
+    private static List<TestMethod> collectMethods(List<XmlSuite> suites) throws ClassNotFoundException {
+        List<TestMethod> methods = new ArrayList<>();
+        for (int s = 0; s < suites.size(); s++) {
+            for (XmlTest test : suites.get(s).getTests()) {
+                for (XmlClass xmlClass : test.getXmlClasses()) {
+                    if (!xmlClass.getIncludedMethods().isEmpty()) {
+                        for (XmlInclude include : xmlClass.getIncludedMethods()) {
+                            methods.add(new TestMethod(s, test.getName(), xmlClass.getName(), include.getName()));
+                        }
+                        continue;
+                    }
+                    Class<?> testClass = Class.forName(xmlClass.getName(), false, ForkRunner.class.getClassLoader());
+                    List<String> names = new ArrayList<>();
+                    for (Method method : testClass.getMethods()) {
+                        if (isTestMethod(method) && !names.contains(method.getName())
+                                && !xmlClass.getExcludedMethods().contains(method.getName())) {
+                            names.add(method.getName());
+                        }
+                    }
+                    names.sort(null);
+                    for (String name : names) {
+                        methods.add(new TestMethod(s, test.getName(), xmlClass.getName(), name));
+                    }
+                }
+            }
+        }
+        return methods;
+    }
+
+    private static boolean isTestMethod(Method method) {
+        Test annotation = method.getAnnotation(Test.class);
+        return annotation != null && annotation.enabled();
+    }
+
+    /**
+     * Writes one suite file per original suite that has methods in this shard, with the same listeners,
+     * parameters and test names
+     */
+    private static List<String> writeSuites(List<XmlSuite> suites, List<TestMethod> shard, Path workerDir)
+            throws IOException {
+        List<String> files = new ArrayList<>();
+        for (int s = 0; s < suites.size(); s++) {
+            XmlSuite original = suites.get(s);
+            XmlSuite suite = new XmlSuite();
+            suite.setName(original.getName());
+            suite.setVerbose(original.getVerbose());
+            suite.setListeners(original.getListeners());
+            suite.setParameters(original.getParameters());
+            suite.setParallel(original.getParallel());
+            suite.setThreadCount(original.getThreadCount());
+            for (XmlTest originalTest : original.getTests()) {
+                Map<String, XmlClass> classes = new LinkedHashMap<>();
+                for (TestMethod method : shard) {
+                    if (method.suite == s && method.test.equals(originalTest.getName())) {
+                        classes.computeIfAbsent(method.className, name -> new XmlClass(name, false))
+                                .getIncludedMethods().add(new XmlInclude(method.name));
+                    }
+                }
+                if (classes.isEmpty()) {
+                    continue;
+                }
+                XmlTest test = new XmlTest(suite);
+                test.setName(originalTest.getName());
+                test.setPreserveOrder(originalTest.getPreserveOrder());
+                test.setParameters(originalTest.getLocalParameters());
+                test.setXmlClasses(new ArrayList<>(classes.values()));
+            }
+            if (!suite.getTests().isEmpty()) {
+                Path file = workerDir.resolve("testng-" + (s + 1) + ".xml");
+                Files.write(file, suite.toXml().getBytes(StandardCharsets.UTF_8));
+                files.add(file.toString());
+            }
+        }
+        return files;
+    }
+
+    private static Process startWorker(int id, int forks, Path workerDir, List<String> suiteFiles) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        String javaagent = Config.get("fork.javaagent", null);
+        if (javaagent != null && Files.exists(Paths.get(javaagent))) {
+            command.add("-javaagent:" + javaagent);
+        }
+        boolean threadsGiven = false;
+        for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (argument.startsWith("-D") && isWorkerSetting(argument.substring(2))) {
+                continue;
+            }
+            if (argument.startsWith("-D") || argument.startsWith("-X")) {
+                command.add(argument);
+                threadsGiven |= argument.startsWith("-Dtest.threads=");
+            }
+        }
+        if (!threadsGiven) {
+            // Threads of parallel runs share the machine with the other workers
+            command.add("-Dtest.threads=" + Math.max(1, Runtime.getRuntime().availableProcessors() / forks));
+        }
+        command.add("-Dlog.file=logs/automation-fork-" + id + ".log");
+        command.add("-Dscreenshots.index=" + workerDir.resolve("screenshot-index.json"));
+        command.add("-Daction.metrics.file=" + workerDir.resolve("action-metrics.json"));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("org.testng.TestNG");
+        command.add("-d");
+        command.add(workerDir.resolve("testng").toString());
+        command.addAll(suiteFiles);
+        Log.debug("Worker {} command: {}", id, command);
+
+        File output = workerDir.resolve("output.log").toFile();
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(output)
+                .start();
+    }
+
+    private static boolean isWorkerSetting(String setting) {
+        for (String prefix : WORKER_SETTINGS) {
+            if (setting.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Merges the workers' JUnit reports into one TEST-&lt;class&gt;.xml per class, as Surefire writes them
+     *
+     * @return the test, failure, error and skip counts over all reports
+     */
+    private static Map<String, Long> mergeJUnitReports(int forks) throws Exception {
+        Map<String, Document> merged = new LinkedHashMap<>();
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        for (int i = 1; i <= forks; i++) {
+            Path reports = FORK_DIR.resolve("fork-" + i).resolve("testng").resolve("junitreports");
+            if (!Files.isDirectory(reports)) {
+                Log.warn("Worker {} wrote no JUnit reports", i);
+                continue;
+            }
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(reports, "TEST-*.xml")) {
+                stream.forEach(files::add);
+            }
+            files.sort(Comparator.comparing(Path::toString));
+            for (Path file : files) {
+                Document report = factory.newDocumentBuilder().parse(file.toFile());
+                String name = file.getFileName().toString();
+                Document target = merged.get(name);
+                if (target == null) {
+                    merged.put(name, report);
+                } else {
+                    appendSuite(target.getDocumentElement(), report.getDocumentElement());
+                }
+            }
+        }
+
+        Map<String, Long> totals = new LinkedHashMap<>();
+        COUNT_ATTRIBUTES.forEach(attribute -> totals.put(attribute, 0L));
+        Files.createDirectories(SUREFIRE_DIR);
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        for (Map.Entry<String, Document> entry : merged.entrySet()) {
+            Element suite = entry.getValue().getDocumentElement();
+            for (String attribute : COUNT_ATTRIBUTES) {
+                totals.merge(attribute, count(suite, attribute), Long::sum);
+            }
+            transformer.transform(new DOMSource(entry.getValue()),
+                    new StreamResult(SUREFIRE_DIR.resolve(entry.getKey()).toFile()));
+        }
+        Log.info("Merged {} JUnit reports into {}", merged.size(), SUREFIRE_DIR);
+        return totals;
+    }
+
+    /**
+     * Moves the test cases of one report into another and adds up the counts and time
+     */
+    private static void appendSuite(Element target, Element source) {
+        NodeList children = source.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (child instanceof Element && ((Element) child).getTagName().equals("testcase")) {
+                target.appendChild(target.getOwnerDocument().importNode(child, true));
+            }
+        }
+        for (String attribute : COUNT_ATTRIBUTES) {
+            if (target.hasAttribute(attribute) || source.hasAttribute(attribute)) {
+                target.setAttribute(attribute, Long.toString(count(target, attribute) + count(source, attribute)));
+            }
+        }
+        double time = parseTime(target) + parseTime(source);
+        target.setAttribute("time", String.format(Locale.ROOT, "%.3f", time));
+    }
+
+    private static long count(Element suite, String attribute) {
+        try {
+            return suite.hasAttribute(attribute) ? Long.parseLong(suite.getAttribute(attribute)) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static double parseTime(Element suite) {
+        try {
+            return suite.hasAttribute("time") ? Double.parseDouble(suite.getAttribute("time")) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Joins the workers' screenshot indexes into screenshots/index.json
+     */
+    private static void mergeScreenshotIndexes(int forks) throws IOException {
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        List<Object> groups = new ArrayList<>();
+        for (int i = 1; i <= forks; i++) {
+            Path index = FORK_DIR.resolve("fork-" + i).resolve("screenshot-index.json");
+            if (Files.exists(index)) {
+                groups.addAll(Arrays.asList(mapper.readValue(index.toFile(), Object[].class)));
+            }
+        }
+        if (!groups.isEmpty()) {
+            Files.createDirectories(SCREENSHOT_INDEX.getParent());
+            mapper.writeValue(SCREENSHOT_INDEX.toFile(), groups);
+            Log.info("Wrote screenshot index: " + SCREENSHOT_INDEX);
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Gets the free physical memory in MB, or -1 when the JVM does not report it
+     */
+    @SuppressWarnings("deprecation")
+    private static long getFreeMemoryMb() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getFreePhysicalMemorySize() / (1024 * 1024);
+        }
+        return -1;
+    }
+
+    /**
+     * One test method of a class in a &lt;test&gt; of a suite
+     */
+    private static class TestMethod {
+        private final int suite;
+        private final String test;
+        private final String className;
+        private final String name;
+
+        TestMethod(int suite, String test, String className, String name) {
+            this.suite = suite;
+            this.test = test;
+            this.className = className;
+            this.name = name;
+        }
+    }
+}
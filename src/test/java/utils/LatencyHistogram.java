@@ -0,0 +1,86 @@
+package utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with logarithmic buckets: eight buckets per doubling, so a percentile is
+ * reported within about 9% of the true value. Covers 1 microsecond to well over an hour; the exact
+ * maximum is tracked separately.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS_PER_DOUBLING = 8;
+    private static final int BUCKET_COUNT = 36 * BUCKETS_PER_DOUBLING;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * Records one latency
+     */
+    public void record(long nanos) {
+        long micros = Math.max(1, nanos / 1000);
+        buckets.incrementAndGet(bucketOf(micros));
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public double getTotalMillis() {
+        return totalMicros.get() / 1000.0;
+    }
+
+    public double getMaxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+
+    /**
+     * Gets the latency below which the given fraction (0-1) of the recorded values fall, in milliseconds
+     */
+    public double getPercentileMillis(double fraction) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundMicros(i), maxMicros.get()) / 1000.0;
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * Gets the non-empty buckets as upper bound in microseconds mapped to count, so runs can be merged
+     */
+    public Map<Long, Long> getBuckets() {
+        Map<Long, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long value = buckets.get(i);
+            if (value > 0) {
+                result.put(upperBoundMicros(i), value);
+            }
+        }
+        return result;
+    }
+
+    private static int bucketOf(long micros) {
+        int bucket = (int) Math.ceil(Math.log(micros) / Math.log(2) * BUCKETS_PER_DOUBLING);
+        return Math.min(Math.max(bucket, 0), BUCKET_COUNT - 1);
+    }
+
+    private static long upperBoundMicros(int bucket) {
+        return (long) Math.floor(Math.pow(2, (double) bucket / BUCKETS_PER_DOUBLING));
+    }
+}
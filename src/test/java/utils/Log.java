@@ -2,25 +2,98 @@ package utils;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.ThreadContext;
+
+import java.util.function.Supplier;
 
 /**
- * Utility class for logging throughout the framework
+ * Utility class for logging throughout the framework.
+ * Prefer the parameterized overloads, e.g. Log.info("Clicking on element: {}", selector), or a Supplier
+ * for expensive messages: the message is only built when the level is enabled.
  */
 public class Log {
     private static final Logger logger = LogManager.getLogger(Log.class);
 
+    /**
+     * Tags every following log line of the current thread with the test and data row
+     */
+    public static void startTest(String test, String row) {
+        ThreadContext.put("test", test);
+        if (row != null) {
+            ThreadContext.put("row", row);
+        }
+    }
+
+    /**
+     * Removes the test tags of the current thread
+     */
+    public static void endTest() {
+        ThreadContext.remove("test");
+        ThreadContext.remove("row");
+    }
+
     public static void info(String message) {
         logger.info(message);
     }
 
+    public static void info(String message, Object param) {
+        logger.info(message, param);
+    }
+
+    public static void info(String message, Object param1, Object param2) {
+        logger.info(message, param1, param2);
+    }
+
+    public static void info(String message, Object... params) {
+        logger.info(message, params);
+    }
+
+    public static void info(Supplier<String> message) {
+        if (logger.isInfoEnabled()) {
+            logger.info(message.get());
+        }
+    }
+
     public static void debug(String message) {
         logger.debug(message);
     }
 
+    public static void debug(String message, Object param) {
+        logger.debug(message, param);
+    }
+
+    public static void debug(String message, Object param1, Object param2) {
+        logger.debug(message, param1, param2);
+    }
+
+    public static void debug(String message, Object... params) {
+        logger.debug(message, params);
+    }
+
+    public static void debug(Supplier<String> message) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(message.get());
+        }
+    }
+
     public static void warn(String message) {
         logger.warn(message);
     }
 
+    public static void warn(String message, Object param) {
+        logger.warn(message, param);
+    }
+
+    public static void warn(String message, Object param1, Object param2) {
+        logger.warn(message, param1, param2);
+    }
+
+    public static void warn(Supplier<String> message) {
+        if (logger.isWarnEnabled()) {
+            logger.warn(message.get());
+        }
+    }
+
     public static void error(String message) {
         logger.error(message);
     }
@@ -29,7 +102,18 @@ public class Log {
         logger.error(message, throwable);
     }
 
+    public static void error(String message, Object param) {
+        logger.error(message, param);
+    }
+
     public static void fatal(String message) {
         logger.fatal(message);
     }
+
+    /**
+     * Checks whether debug messages are logged, for guarding work done only to build a message
+     */
+    public static boolean isDebugEnabled() {
+        return logger.isDebugEnabled();
+    }
 }
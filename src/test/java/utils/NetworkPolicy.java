@@ -0,0 +1,247 @@
+package utils;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Request;
+import com.microsoft.playwright.Route;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Declarative request routing for a BrowserContext. Requests are blocked by resource type, URL
+ * pattern or host, or stubbed with an empty response, unless a page object has allowlisted them.
+ * <p>
+ * Blocked requests are never downloaded, so bytes saved are estimated from the blocked counts and a typical
+ * size per resource type (network.size.estimates, e.g. "image=25600,font=40960"). Requests are not
+ * throttled: route handlers run on the test thread inside its driver calls, so delaying one would stall
+ * the whole test rather than the request.
+ * <p>
+ * On a browser shared through the BrowserScheduler the route handlers of all its tests run on whichever
+ * thread is in a driver call at the time. A request waits while every test on the browser sleeps between
+ * polls, up to browser.multiplex.pollMs, so the policy is only installed there when network.policy is set
+ * explicitly.
+ */
+public class NetworkPolicy {
+    private static final String DEFAULT_BLOCKED_TYPES = "image,font,media";
+    private static final String DEFAULT_STUBBED_HOSTS = "google-analytics.com,googletagmanager.com,"
+            + "doubleclick.net,omtrdc.net,demdex.net,nr-data.net,newrelic.com,hotjar.com";
+
+    private static final String DEFAULT_SIZE_ESTIMATES = "image=25600,font=40960,media=524288,script=30720,"
+            + "xhr=2048,fetch=2048,ping=512,other=1024";
+    private static final AtomicLong totalBlocked = new AtomicLong();
+    private static final AtomicLong totalBytesSaved = new AtomicLong();
+    private static final AtomicBoolean sharedBrowserWarned = new AtomicBoolean();
+
+    private final Set<String> blockedTypes;
+    private final List<String> blockedHosts;
+    private final List<String> stubbedHosts;
+    private final List<Pattern> blockedUrls;
+    private final Map<String, Long> sizeEstimates;
+    private final List<Pattern> allowedUrls = new CopyOnWriteArrayList<>();
+    private final Map<String, Long> blockedByType = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong blocked = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    public NetworkPolicy(Collection<String> blockedTypes, Collection<String> blockedHosts,
+                         Collection<String> stubbedHosts, Collection<String> blockedUrlGlobs,
+                         Map<String, Long> sizeEstimates) {
+        this.sizeEstimates = new HashMap<>(sizeEstimates);
+        this.blockedTypes = new HashSet<>(blockedTypes);
+        this.blockedHosts = new ArrayList<>(blockedHosts);
+        this.stubbedHosts = new ArrayList<>(stubbedHosts);
+        this.blockedUrls = new ArrayList<>();
+        for (String glob : blockedUrlGlobs) {
+            this.blockedUrls.add(globToPattern(glob));
+        }
+    }
+
+    /**
+     * Checks whether the network policy is switched on for this run. With -Dbrowser.multiplex=true the
+     * profile default does not apply and only an explicit -Dnetwork.policy=true installs it.
+     */
+    public static boolean isEnabled() {
+        if (!BrowserScheduler.isEnabled()) {
+            return Config.getBoolean("network.policy", ExecutionProfile.current() == ExecutionProfile.THROUGHPUT);
+        }
+        boolean enabled = Config.getBoolean("network.policy", false);
+        if (sharedBrowserWarned.compareAndSet(false, true)) {
+            Log.warn(enabled
+                    ? "Network policy on shared browsers: requests can wait up to browser.multiplex.pollMs for "
+                            + "a test to run their route handlers"
+                    : "Network policy is off on shared browsers; set -Dnetwork.policy=true to install it anyway");
+        }
+        return enabled;
+    }
+
+    /**
+     * Builds a policy from network.block.types, network.block.hosts, network.stub.hosts, network.block.urls
+     * and network.size.estimates
+     */
+    public static NetworkPolicy fromConfig() {
+        return new NetworkPolicy(
+                split(Config.get("network.block.types", DEFAULT_BLOCKED_TYPES)),
+                split(Config.get("network.block.hosts", "")),
+                split(Config.get("network.stub.hosts", DEFAULT_STUBBED_HOSTS)),
+                split(Config.get("network.block.urls", "")),
+                parseSizes(Config.get("network.size.estimates", DEFAULT_SIZE_ESTIMATES)));
+    }
+
+    /**
+     * Allowlists URL glob patterns that must never be blocked, e.g. resources a page object depends on
+     */
+    public NetworkPolicy allow(Collection<String> urlGlobs) {
+        for (String glob : urlGlobs) {
+            allowedUrls.add(globToPattern(glob));
+        }
+        return this;
+    }
+
+    /**
+     * Installs the policy on a browser context. Must be called before pages are opened.
+     */
+    public void install(BrowserContext context) {
+        context.route("**/*", this::handle);
+    }
+
+    private void handle(Route route) {
+        Request request = route.request();
+        requests.incrementAndGet();
+        String url = request.url();
+        String type = request.resourceType();
+        if (isAllowed(url)) {
+            route.resume();
+            return;
+        }
+        String host = getHost(url);
+        if (matchesHost(host, stubbedHosts)) {
+            recordBlocked(type);
+            route.fulfill(new Route.FulfillOptions().setStatus(204).setBody(""));
+        } else if (blockedTypes.contains(type) || matchesHost(host, blockedHosts) || matchesUrl(url, blockedUrls)) {
+            recordBlocked(type);
+            route.abort("blockedbyclient");
+        } else {
+            route.resume();
+        }
+    }
+
+    private boolean isAllowed(String url) {
+        return matchesUrl(url, allowedUrls);
+    }
+
+    private void recordBlocked(String type) {
+        blocked.incrementAndGet();
+        totalBlocked.incrementAndGet();
+        blockedByType.merge(type, 1L, Long::sum);
+        long estimate = sizeEstimates.getOrDefault(type, 0L);
+        bytesSaved.addAndGet(estimate);
+        totalBytesSaved.addAndGet(estimate);
+    }
+
+    /**
+     * Gets a one-line summary of requests and estimated bytes saved by this policy
+     */
+    public String getStats() {
+        return "Network policy - requests: " + requests.get()
+                + ", blocked or stubbed: " + blocked.get() + " " + new TreeMap<>(blockedByType)
+                + ", estimated bytes saved: " + bytesSaved.get();
+    }
+
+    /**
+     * Gets a one-line summary of all policies in this run
+     */
+    public static String getTotalStats() {
+        return "Network policy totals - blocked or stubbed requests: " + totalBlocked.get()
+                + ", estimated bytes saved: " + totalBytesSaved.get();
+    }
+
+    private static boolean matchesHost(String host, List<String> hosts) {
+        for (String candidate : hosts) {
+            candidate = candidate.toLowerCase();
+            if (host.equals(candidate) || host.endsWith("." + candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matchesUrl(String url, List<Pattern> patterns) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(url).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String getHost(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? "" : host.toLowerCase();
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+
+    /**
+     * Converts a Playwright-style URL glob ("**" any characters, "*" anything but '/') to a regex
+     */
+    private static Pattern globToPattern(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*') {
+                if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                    regex.append(".*");
+                    i++;
+                } else {
+                    regex.append("[^/]*");
+                }
+            } else if ("\\.[]{}()+-?^$|".indexOf(c) >= 0) {
+                regex.append('\\').append(c);
+            } else {
+                regex.append(c);
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * Parses "type=bytes" pairs, skipping malformed ones with a warning
+     */
+    private static Map<String, Long> parseSizes(String value) {
+        Map<String, Long> sizes = new HashMap<>();
+        for (String pair : split(value)) {
+            String[] parts = pair.split("=", 2);
+            try {
+                sizes.put(parts[0].trim(), Long.parseLong(parts[1].trim()));
+            } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                Log.warn("Invalid network.size.estimates entry: " + pair);
+            }
+        }
+        return sizes;
+    }
+
+    private static List<String> split(String value) {
+        List<String> values = new ArrayList<>();
+        for (String part : Arrays.asList(value.split(","))) {
+            if (!part.trim().isEmpty()) {
+                values.add(part.trim());
+            }
+        }
+        return values;
+    }
+}
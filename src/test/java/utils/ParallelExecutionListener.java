@@ -0,0 +1,49 @@
+package utils;
+
+import org.testng.IAlterSuiteListener;
+import org.testng.IAnnotationTransformer;
+import org.testng.annotations.IDataProviderAnnotation;
+import org.testng.xml.XmlSuite;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * TestNG listener that switches the suite into parallel mode from the command line.
+ * Use -Dtest.parallel=methods (or classes) and -Dtest.threads=N; the default runs sequentially as before.
+ */
+public class ParallelExecutionListener implements IAlterSuiteListener, IAnnotationTransformer {
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        XmlSuite.ParallelMode mode = getParallelMode();
+        if (mode == XmlSuite.ParallelMode.NONE) {
+            return;
+        }
+        int threads = getThreadCount();
+        for (XmlSuite suite : suites) {
+            Log.info("Running suite '" + suite.getName() + "' with parallel=" + mode + " on " + threads + " threads");
+            suite.setParallel(mode);
+            suite.setThreadCount(threads);
+            suite.setDataProviderThreadCount(threads);
+        }
+    }
+
+    @Override
+    public void transform(IDataProviderAnnotation annotation, Method method) {
+        // Let data-driven rows run on the data provider thread pool as well
+        if (getParallelMode() != XmlSuite.ParallelMode.NONE) {
+            annotation.setParallel(true);
+        }
+    }
+
+    private static XmlSuite.ParallelMode getParallelMode() {
+        String value = Config.get("test.parallel", "none");
+        XmlSuite.ParallelMode mode = XmlSuite.ParallelMode.getValidParallel(value);
+        return mode == null ? XmlSuite.ParallelMode.NONE : mode;
+    }
+
+    private static int getThreadCount() {
+        return Math.max(1, Config.getInt("test.threads", Runtime.getRuntime().availableProcessors()));
+    }
+}
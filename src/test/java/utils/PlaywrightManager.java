@@ -0,0 +1,169 @@
+package utils;
+
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Playwright;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Hands out Playwright drivers with their browser pools, one per running test.
+ * The Playwright sync API is not thread-safe, so a test leases a worker for its own thread and gives it back
+ * when it is done; the next test, on whatever thread, reuses it. At most test.threads workers exist (default
+ * the number of cores), so short-lived threads such as TestNG's data provider pools do not each start a
+ * driver and browser. Threads attached to a browser shared through the BrowserScheduler use that instead.
+ */
+public class PlaywrightManager {
+    private static final ThreadLocal<Worker> leased = new ThreadLocal<>();
+    private static final Deque<Worker> idleWorkers = new ArrayDeque<>();
+    private static final List<Worker> allWorkers = new CopyOnWriteArrayList<>();
+    private static volatile BrowserType.LaunchOptions launchOptions = new BrowserType.LaunchOptions();
+    private static volatile int maxWorkers;
+    private static int workerCount;
+
+    /**
+     * Sets the launch options used when a worker starts its browser
+     */
+    public static void setLaunchOptions(BrowserType.LaunchOptions options) {
+        launchOptions = options;
+    }
+
+    static BrowserType.LaunchOptions getLaunchOptions() {
+        return launchOptions;
+    }
+
+    /**
+     * Sets how many workers may exist at once, overriding test.threads
+     */
+    public static void setMaxWorkers(int max) {
+        maxWorkers = Math.max(1, max);
+    }
+
+    /**
+     * Leases a worker to the current thread, reusing an idle one or starting a new one while below the limit,
+     * and otherwise waiting for another test to release one. Does nothing when the thread holds one already.
+     */
+    public static void lease() {
+        if (leased.get() != null) {
+            return;
+        }
+        Worker worker = null;
+        int id;
+        synchronized (idleWorkers) {
+            while (idleWorkers.isEmpty() && workerCount >= getMaxWorkers()) {
+                try {
+                    idleWorkers.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for a Playwright worker");
+                }
+            }
+            if (!idleWorkers.isEmpty()) {
+                worker = idleWorkers.pop();
+            }
+            id = worker == null ? ++workerCount : worker.id;
+        }
+        if (worker == null) {
+            try {
+                worker = new Worker(id);
+            } catch (RuntimeException e) {
+                synchronized (idleWorkers) {
+                    workerCount--;
+                    idleWorkers.notifyAll();
+                }
+                throw e;
+            }
+            allWorkers.add(worker);
+        }
+        leased.set(worker);
+    }
+
+    /**
+     * Gives the current thread's worker back for the next test. Its contexts must be closed by then.
+     */
+    public static void release() {
+        Worker worker = leased.get();
+        if (worker == null) {
+            return;
+        }
+        leased.remove();
+        synchronized (idleWorkers) {
+            idleWorkers.push(worker);
+            idleWorkers.notifyAll();
+        }
+    }
+
+    /**
+     * Gets the Playwright instance leased to the current thread, leasing a worker on first use
+     */
+    public static Playwright getPlaywright() {
+        if (BrowserScheduler.isAttached()) {
+            return BrowserScheduler.getPlaywright();
+        }
+        return currentWorker().playwright;
+    }
+
+    /**
+     * Gets the browser pool leased to the current thread, leasing a worker on first use
+     */
+    public static BrowserPool getBrowserPool() {
+        if (BrowserScheduler.isAttached()) {
+            return BrowserScheduler.getBrowserPool();
+        }
+        return currentWorker().browserPool;
+    }
+
+    /**
+     * Closes the browsers and Playwright drivers of every worker. Call once all tests have finished.
+     */
+    public static void closeAll() {
+        for (Worker worker : allWorkers) {
+            worker.close();
+        }
+        allWorkers.clear();
+        synchronized (idleWorkers) {
+            idleWorkers.clear();
+            workerCount = 0;
+        }
+        BrowserScheduler.closeAll();
+        Log.info(BrowserPool.getStats());
+    }
+
+    private static Worker currentWorker() {
+        lease();
+        return leased.get();
+    }
+
+    private static int getMaxWorkers() {
+        int max = maxWorkers;
+        return max > 0 ? max : Math.max(1, Config.getInt("test.threads", Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Playwright driver and browser pool used by one test at a time
+     */
+    private static class Worker {
+        private final int id;
+        private final Playwright playwright;
+        private final BrowserPool browserPool;
+
+        Worker(int id) {
+            Log.info("Starting Playwright worker {} on thread {}", id, Thread.currentThread().getName());
+            this.id = id;
+            this.playwright = Playwright.create();
+            this.browserPool = new BrowserPool(playwright.chromium(), launchOptions);
+        }
+
+        void close() {
+            Log.info("Closing Playwright worker " + id);
+            try {
+                browserPool.close();
+                playwright.close();
+            } catch (Exception e) {
+                Log.warn("Error closing Playwright worker " + id + ": " + e.getMessage());
+            }
+        }
+    }
+}
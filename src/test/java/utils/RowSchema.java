@@ -0,0 +1,55 @@
+package utils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column layout shared by every row of one sheet or CSV file.
+ * Header names are interned and mapped to their column once, so rows only need to hold their values.
+ */
+public final class RowSchema {
+    private final String[] columns;
+    private final Map<String, Integer> index;
+
+    public RowSchema(List<String> columnNames) {
+        columns = new String[columnNames.size()];
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = columnNames.get(i).intern();
+            // A repeated header maps to its last column, as a HashMap row always did
+            positions.put(columns[i], i);
+        }
+        index = Collections.unmodifiableMap(positions);
+    }
+
+    /**
+     * Gets the number of columns, including repeated headers
+     */
+    public int size() {
+        return columns.length;
+    }
+
+    /**
+     * Gets the header name of a column
+     */
+    public String getColumn(int column) {
+        return columns[column];
+    }
+
+    /**
+     * Gets the column of a header name, or -1 when the schema has no such column
+     */
+    public int indexOf(Object columnName) {
+        Integer column = index.get(columnName);
+        return column == null ? -1 : column;
+    }
+
+    /**
+     * Checks whether a column is the one its header name resolves to
+     */
+    boolean isVisible(int column) {
+        return index.get(columns[column]) == column;
+    }
+}
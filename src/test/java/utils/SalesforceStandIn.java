@@ -0,0 +1,535 @@
+package utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Offline stand-in for the Salesforce Lightning pages the tests use, served by an embedded JDK HttpServer.
+ * It reproduces the DOM contracts of LoginPage and AccountPage (login form, app launcher, Accounts list,
+ * new account form with Lightning comboboxes, record detail page, toasts and field errors) so the framework
+ * can be measured without network access or org latency.
+ * <p>
+ * Start it for a run with -Dstandin=true. Requests to Salesforce hosts and relative URLs are then sent to
+ * the stand-in by {@link #resolve(String)}. Settings:
+ * <ul>
+ *     <li>standin.port - listen port, default 0 (any free port)</li>
+ *     <li>standin.threads - server threads, default twice the number of cores</li>
+ *     <li>standin.users - accepted credentials as user:password pairs, default testuser@example.com:password123</li>
+ *     <li>standin.latency.ms and standin.jitter.ms - delay added to every page response, default 0. Delayed
+ *     responses are scheduled, so they do not hold a server thread while they wait.</li>
+ *     <li>standin.failure.rate - share of page responses answered with 503, from 0 to 1, default 0</li>
+ *     <li>standin.render.ms - how long pages show a Lightning spinner before they are ready, default 0</li>
+ * </ul>
+ */
+public class SalesforceStandIn {
+    private static final String SESSION_COOKIE = "sid";
+    private static final String DEFAULT_USERS = "testuser@example.com:password123";
+    private static final String DEFAULT_HOSTS = "salesforce.com,force.com";
+    private static final List<String> ACCOUNT_TYPES = Arrays.asList("Analyst", "Competitor", "Customer - Channel",
+            "Customer - Direct", "Integrator", "Investor", "Partner", "Press", "Prospect", "Reseller", "Other");
+    private static final List<String> INDUSTRIES = Arrays.asList("Agriculture", "Apparel", "Banking",
+            "Biotechnology", "Chemicals", "Communications", "Construction", "Consulting", "Education", "Electronics",
+            "Energy", "Engineering", "Entertainment", "Environmental", "Finance", "Food & Beverage", "Government",
+            "Healthcare", "Hospitality", "Insurance", "Machinery", "Manufacturing", "Media", "Not For Profit",
+            "Recreation", "Retail", "Shipping", "Technology", "Telecommunications", "Transportation", "Utilities",
+            "Other");
+
+    private static final String STYLE = "<style>"
+            + "body{font-family:sans-serif;margin:0}"
+            + "header{display:flex;gap:16px;align-items:center;padding:8px;background:#f3f3f3}"
+            + "lightning-combobox,lightning-spinner{display:block}"
+            + "lightning-combobox{position:relative;width:300px;margin:8px 0}"
+            + "lightning-base-combobox-item{display:block;padding:4px;cursor:pointer}"
+            + ".slds-listbox{position:absolute;z-index:10;background:#fff;border:1px solid #ccc;width:100%}"
+            + ".slds-spinner_container{position:fixed;inset:0;background:rgba(255,255,255,.7)}"
+            + ".slds-has-error input{border-color:#c23934}"
+            + "</style>";
+    private static final String COMBOBOX_SCRIPT = "<script>"
+            + "document.querySelectorAll('lightning-combobox').forEach(box => box.addEventListener('click', e => {"
+            + "  const list = box.querySelector('.slds-listbox');"
+            + "  const item = e.target.closest('lightning-base-combobox-item');"
+            + "  if (item) {"
+            + "    box.querySelector('input').value = item.dataset.value;"
+            + "    box.querySelector('button').textContent = item.dataset.value;"
+            + "    list.hidden = true;"
+            + "  } else {"
+            + "    list.hidden = !list.hidden;"
+            + "  }"
+            + "}));"
+            + "</script>";
+    private static final String SPINNER_SCRIPT = "<script>"
+            + "setTimeout(() => document.querySelectorAll('lightning-spinner').forEach(s => s.remove()), %d);"
+            + "</script>";
+
+    private static final Map<String, String> sessions = new ConcurrentHashMap<>();
+    private static final Map<String, Map<String, String>> accounts = new ConcurrentHashMap<>();
+    private static final AtomicInteger nextAccount = new AtomicInteger();
+    private static final AtomicLong requests = new AtomicLong();
+    private static final AtomicLong failures = new AtomicLong();
+    private static final AtomicLong delayMillis = new AtomicLong();
+    private static final AtomicLong logins = new AtomicLong();
+    private static final AtomicLong accountsCreated = new AtomicLong();
+
+    private static HttpServer server;
+    private static ExecutorService executor;
+    private static ScheduledExecutorService delays;
+    private static volatile String baseUrl;
+
+    /**
+     * Checks whether the stand-in is switched on for this run (-Dstandin, default false)
+     */
+    public static boolean isEnabled() {
+        return Config.getBoolean("standin", false);
+    }
+
+    /**
+     * Starts the server on the loopback interface unless it is already running
+     */
+    public static synchronized void start() {
+        if (server != null) {
+            return;
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                    Config.getInt("standin.port", 0)), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start Salesforce stand-in: " + e.getMessage(), e);
+        }
+        int threads = Config.getInt("standin.threads", Runtime.getRuntime().availableProcessors() * 2);
+        AtomicInteger count = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "standin-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        delays = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "standin-delay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", SalesforceStandIn::handle);
+        server.start();
+        baseUrl = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+        Log.info("Salesforce stand-in listening on {} with {} threads", baseUrl, threads);
+    }
+
+    /**
+     * Stops the server and forgets its sessions and accounts
+     */
+    public static synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        delays.shutdownNow();
+        executor.shutdownNow();
+        server = null;
+        executor = null;
+        delays = null;
+        baseUrl = null;
+        sessions.clear();
+        accounts.clear();
+        Log.info("Salesforce stand-in stopped");
+    }
+
+    /**
+     * Gets the base URL of the running server, e.g. http://127.0.0.1:41234, or null when it is not running
+     */
+    public static String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Maps a URL to the stand-in while it is running. Relative URLs and URLs on a Salesforce host
+     * (standin.hosts, default salesforce.com,force.com) keep their path and query; other URLs are
+     * returned unchanged.
+     */
+    public static String resolve(String url) {
+        String base = baseUrl;
+        if (base == null || url == null) {
+            return url;
+        }
+        URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+        if (uri.getScheme() == null) {
+            return base + (url.startsWith("/") ? url : "/" + url);
+        }
+        String host = uri.getHost() == null ? "" : uri.getHost().toLowerCase();
+        for (String suffix : Config.get("standin.hosts", DEFAULT_HOSTS).split(",")) {
+            suffix = suffix.trim().toLowerCase();
+            if (!suffix.isEmpty() && (host.equals(suffix) || host.endsWith("." + suffix))) {
+                String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+                return base + path + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+            }
+        }
+        return url;
+    }
+
+    /**
+     * Gets a one-line summary of requests served and injected latency and failures
+     */
+    public static String getStats() {
+        long count = requests.get();
+        return "Salesforce stand-in - requests: " + count + ", injected failures: " + failures.get()
+                + ", injected delay: " + delayMillis.get() + " ms"
+                + " (avg " + (count == 0 ? 0 : delayMillis.get() / count) + " ms)"
+                + ", logins: " + logins.get() + ", accounts created: " + accountsCreated.get();
+    }
+
+    /**
+     * Answers at once, or after the injected latency from the delay scheduler so the server thread is free
+     * to take other requests in the meantime
+     */
+    private static void handle(HttpExchange exchange) {
+        requests.incrementAndGet();
+        long delay = latency();
+        if (delay == 0) {
+            respond(exchange);
+            return;
+        }
+        delayMillis.addAndGet(delay);
+        ExecutorService workers = executor;
+        try {
+            delays.schedule(() -> {
+                try {
+                    workers.execute(() -> respond(exchange));
+                } catch (RejectedExecutionException e) {
+                    exchange.close();
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            exchange.close();
+        }
+    }
+
+    private static void respond(HttpExchange exchange) {
+        try {
+            if (injectFailure(exchange)) {
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            if (path.equals("/") || path.equals("/login")) {
+                if ("POST".equals(method)) {
+                    login(exchange);
+                } else {
+                    send(exchange, 200, loginPage(null));
+                }
+            } else if (path.equals("/secur/forgotpassword.jsp")) {
+                send(exchange, 200, page("Forgot Your Password", "<h1>Forgot Your Password</h1>"));
+            } else if (path.equals("/favicon.ico")) {
+                send(exchange, 404, "");
+            } else {
+                String user = sessions.get(cookie(exchange, SESSION_COOKIE));
+                if (user == null) {
+                    redirect(exchange, "/");
+                } else {
+                    routeLightning(exchange, method, path);
+                }
+            }
+        } catch (RuntimeException e) {
+            Log.warn("Salesforce stand-in could not handle {}: {}", exchange.getRequestURI(), e.toString());
+            try {
+                send(exchange, 500, page("Error", "<h1>Internal Server Error</h1>"));
+            } catch (IOException ignored) {
+                // The client is gone, nothing left to answer
+            }
+        } catch (IOException e) {
+            Log.debug("Salesforce stand-in could not answer {}: {}", exchange.getRequestURI(), e.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void routeLightning(HttpExchange exchange, String method, String path) throws IOException {
+        if (path.equals("/lightning/page/home")) {
+            send(exchange, 200, lightningPage("Home", "<h1 class=\"slds-page-header__title\">Home</h1>"));
+        } else if (path.equals("/lightning/o/Account/list")) {
+            send(exchange, 200, accountListPage());
+        } else if (path.equals("/lightning/o/Account/new")) {
+            if ("POST".equals(method)) {
+                saveAccount(exchange);
+            } else {
+                String saved = query(exchange).get("saved");
+                send(exchange, 200, accountFormPage(Collections.emptyMap(), false,
+                        saved == null ? null : accounts.get(saved)));
+            }
+        } else if (path.startsWith("/lightning/r/Account/") && path.endsWith("/view")) {
+            String id = path.substring("/lightning/r/Account/".length(), path.length() - "/view".length());
+            Map<String, String> account = accounts.get(id);
+            if (account == null) {
+                send(exchange, 404, lightningPage("Not Found", "<h1>Record not found</h1>"));
+            } else {
+                send(exchange, 200, accountDetailPage(account, query(exchange).containsKey("created")));
+            }
+        } else {
+            send(exchange, 404, lightningPage("Not Found", "<h1>Page not found</h1>"));
+        }
+    }
+
+    /**
+     * Gets the delay to add to this response, as configured
+     */
+    private static long latency() {
+        long delay = Math.max(0, Config.getInt("standin.latency.ms", 0));
+        int jitter = Config.getInt("standin.jitter.ms", 0);
+        if (jitter > 0) {
+            delay += ThreadLocalRandom.current().nextInt(jitter + 1);
+        }
+        return delay;
+    }
+
+    /**
+     * Answers a share of requests with 503, as configured
+     */
+    private static boolean injectFailure(HttpExchange exchange) throws IOException {
+        double failureRate = Config.getDouble("standin.failure.rate", 0);
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            failures.incrementAndGet();
+            send(exchange, 503, page("Service Unavailable",
+                    "<h1>Service Unavailable</h1><p>Injected failure from the Salesforce stand-in.</p>"));
+            return true;
+        }
+        return false;
+    }
+
+    private static void login(HttpExchange exchange) throws IOException {
+        Map<String, String> form = form(exchange);
+        String username = form.getOrDefault("username", "");
+        String password = form.getOrDefault("pw", "");
+        if (username.isEmpty() || password.isEmpty() || !password.equals(users().get(username))) {
+            send(exchange, 200, loginPage("Please check your username and password. If you still can't log in, "
+                    + "contact your Salesforce administrator."));
+            return;
+        }
+        String sessionId = UUID.randomUUID().toString().replace("-", "");
+        sessions.put(sessionId, username);
+        logins.incrementAndGet();
+        exchange.getResponseHeaders().add("Set-Cookie", SESSION_COOKIE + "=" + sessionId + "; Path=/; HttpOnly");
+        redirect(exchange, "/lightning/page/home");
+    }
+
+    private static void saveAccount(HttpExchange exchange) throws IOException {
+        Map<String, String> form = form(exchange);
+        if (form.getOrDefault("Name", "").trim().isEmpty()) {
+            send(exchange, 200, accountFormPage(form, true, null));
+            return;
+        }
+        Map<String, String> account = new LinkedHashMap<>();
+        account.put("Id", String.format("001%012d", nextAccount.incrementAndGet()));
+        for (String field : Arrays.asList("Name", "Type", "Industry", "Phone", "Website")) {
+            account.put(field, form.getOrDefault(field, ""));
+        }
+        accounts.put(account.get("Id"), account);
+        accountsCreated.incrementAndGet();
+        if (form.containsKey("SaveAndNew")) {
+            redirect(exchange, "/lightning/o/Account/new?saved=" + account.get("Id"));
+        } else {
+            redirect(exchange, "/lightning/r/Account/" + account.get("Id") + "/view?created=1");
+        }
+    }
+
+    private static String loginPage(String error) {
+        return page("Login | Salesforce", "<form method=\"post\" action=\"/login\">"
+                + (error == null ? "" : "<div id=\"error\" class=\"loginError\">" + escape(error) + "</div>")
+                + "<label>Username <input type=\"email\" id=\"username\" name=\"username\"></label><br>"
+                + "<label>Password <input type=\"password\" id=\"password\" name=\"pw\"></label><br>"
+                + "<input type=\"submit\" id=\"Login\" name=\"Login\" value=\"Log In\"><br>"
+                + "<label><input type=\"checkbox\" id=\"rememberUn\" name=\"rememberUn\"> Remember me</label><br>"
+                + "<a id=\"forgot_password_link\" href=\"/secur/forgotpassword.jsp\">Forgot Your Password?</a>"
+                + "</form>");
+    }
+
+    private static String accountListPage() {
+        StringBuilder rows = new StringBuilder();
+        for (Map<String, String> account : accounts.values()) {
+            rows.append("<tr><th><a href=\"/lightning/r/Account/").append(account.get("Id")).append("/view\">")
+                    .append(escape(account.get("Name"))).append("</a></th><td>")
+                    .append(escape(account.get("Type"))).append("</td><td>")
+                    .append(escape(account.get("Phone"))).append("</td></tr>");
+        }
+        return lightningPage("Accounts", "<h1 class=\"slds-page-header__title\">Accounts</h1>"
+                + "<div title=\"New\" class=\"slds-button\" role=\"button\" "
+                + "onclick=\"location.href='/lightning/o/Account/new'\">New</div>"
+                + "<table class=\"slds-table\"><tr><th>Account Name</th><th>Type</th><th>Phone</th></tr>"
+                + rows + "</table>");
+    }
+
+    private static String accountFormPage(Map<String, String> values, boolean nameMissing, Map<String, String> saved) {
+        return lightningPage("New Account", (saved == null ? "" : toast(saved))
+                + "<h2>New Account</h2><form method=\"post\" action=\"/lightning/o/Account/new\">"
+                + "<div class=\"slds-form-element" + (nameMissing ? " slds-has-error" : "") + "\">"
+                + "<label>* Account Name <input name=\"Name\" placeholder=\"Account Name\" value=\""
+                + escape(values.getOrDefault("Name", "")) + "\"></label>"
+                + (nameMissing ? "<div class=\"slds-form-element__help\">Complete this field.</div>" : "")
+                + "</div>"
+                + combobox("Type", ACCOUNT_TYPES, values.get("Type"))
+                + combobox("Industry", INDUSTRIES, values.get("Industry"))
+                + "<label>Phone <input name=\"Phone\" placeholder=\"Phone\" value=\""
+                + escape(values.getOrDefault("Phone", "")) + "\"></label><br>"
+                + "<label>Website <input name=\"Website\" placeholder=\"Website\" value=\""
+                + escape(values.getOrDefault("Website", "")) + "\"></label><br>"
+                + "<button type=\"button\" name=\"CancelEdit\" class=\"slds-button\" "
+                + "onclick=\"location.href='/lightning/o/Account/list'\">Cancel</button>"
+                + "<button type=\"submit\" name=\"SaveAndNew\" value=\"1\" class=\"slds-button\">Save &amp; New</button>"
+                + "<button type=\"submit\" name=\"SaveEdit\" value=\"1\" class=\"slds-button\">Save</button>"
+                + "</form>" + COMBOBOX_SCRIPT);
+    }
+
+    private static String combobox(String field, List<String> options, String value) {
+        StringBuilder items = new StringBuilder();
+        for (String option : options) {
+            items.append("<lightning-base-combobox-item role=\"option\" data-value=\"").append(escape(option))
+                    .append("\">").append(escape(option)).append("</lightning-base-combobox-item>");
+        }
+        String selected = value == null ? "" : value;
+        return "<lightning-combobox data-field-name=\"" + field + "\"><label>" + field + "</label>"
+                + "<input type=\"hidden\" name=\"" + field + "\" value=\"" + escape(selected) + "\">"
+                + "<button type=\"button\" class=\"slds-combobox__input\">"
+                + (selected.isEmpty() ? "--None--" : escape(selected)) + "</button>"
+                + "<div class=\"slds-listbox\" role=\"listbox\" hidden>" + items + "</div></lightning-combobox>";
+    }
+
+    private static String accountDetailPage(Map<String, String> account, boolean created) {
+        StringBuilder fields = new StringBuilder();
+        for (Map.Entry<String, String> field : account.entrySet()) {
+            if (!field.getKey().equals("Id")) {
+                fields.append("<div class=\"slds-form-element\"><label>").append(field.getKey())
+                        .append("</label> <span data-field-name=\"").append(field.getKey()).append("\">")
+                        .append(escape(field.getValue())).append("</span></div>");
+            }
+        }
+        return lightningPage(account.get("Name") + " | Account", (created ? toast(account) : "")
+                + "<h1 class=\"slds-page-header__title\">" + escape(account.get("Name")) + "</h1>" + fields);
+    }
+
+    private static String toast(Map<String, String> account) {
+        return "<div class=\"slds-notify slds-notify_toast\" role=\"status\"><div class=\"slds-notify__content\">"
+                + "Account \"" + escape(account.get("Name")) + "\" was created.</div></div>";
+    }
+
+    /**
+     * Wraps content in the Lightning shell: global header with app launcher, user menu and navigation tabs
+     */
+    private static String lightningPage(String title, String content) {
+        int renderMillis = Config.getInt("standin.render.ms", 0);
+        return page(title, "<header class=\"slds-global-header\">"
+                + "<div class=\"slds-icon-waffle_container\"><div class=\"slds-icon-waffle\" role=\"button\" "
+                + "title=\"App Launcher\">&#9638;</div></div>"
+                + "<nav><a href=\"/lightning/page/home\" data-label=\"Home\">Home</a> "
+                + "<a href=\"/lightning/o/Account/list\" data-label=\"Accounts\">Accounts</a></nav>"
+                + "<div class=\"slds-global-header__item\"><button class=\"slds-button\" title=\"View profile\">"
+                + "User</button></div></header>"
+                + (renderMillis > 0 ? "<lightning-spinner class=\"slds-spinner_container\"></lightning-spinner>"
+                        + String.format(SPINNER_SCRIPT, renderMillis) : "")
+                + "<main>" + content + "</main>");
+    }
+
+    private static String page(String title, String body) {
+        return "<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>" + escape(title) + "</title>"
+                + STYLE + "</head><body>" + body + "</body></html>";
+    }
+
+    private static Map<String, String> users() {
+        Map<String, String> users = new HashMap<>();
+        for (String pair : Config.get("standin.users", DEFAULT_USERS).split(",")) {
+            int separator = pair.indexOf(':');
+            if (separator > 0) {
+                users.put(pair.substring(0, separator).trim(), pair.substring(separator + 1).trim());
+            }
+        }
+        return users;
+    }
+
+    private static String cookie(HttpExchange exchange, String name) {
+        List<String> headers = exchange.getRequestHeaders().get("Cookie");
+        if (headers != null) {
+            for (String header : headers) {
+                for (String cookie : header.split(";")) {
+                    String[] parts = cookie.trim().split("=", 2);
+                    if (parts.length == 2 && parts[0].equals(name)) {
+                        return parts[1];
+                    }
+                }
+            }
+        }
+        return "";
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        return decode(exchange.getRequestURI().getRawQuery());
+    }
+
+    private static Map<String, String> form(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            return decode(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Map<String, String> decode(String encoded) {
+        Map<String, String> values = new LinkedHashMap<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return values;
+        }
+        for (String pair : encoded.split("&")) {
+            String[] parts = pair.split("=", 2);
+            values.put(URLDecoder.decode(parts[0], StandardCharsets.UTF_8),
+                    parts.length == 2 ? URLDecoder.decode(parts[1], StandardCharsets.UTF_8) : "");
+        }
+        return values;
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static void redirect(HttpExchange exchange, String location) throws IOException {
+        exchange.getResponseHeaders().add("Location", location);
+        exchange.sendResponseHeaders(302, -1);
+    }
+
+    private static void send(HttpExchange exchange, int status, String html) throws IOException {
+        byte[] body = html.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+        exchange.getResponseHeaders().add("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
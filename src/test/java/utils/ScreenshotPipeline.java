@@ -0,0 +1,225 @@
+package utils;
+
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.PlaywrightException;
+import com.microsoft.playwright.options.ScreenshotType;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Captures screenshots as bytes on the test thread and stores them in the ScreenshotStore on a bounded
+ * background executor.
+ * What is kept follows the execution profile's ArtifactPolicy:
+ * <ul>
+ *     <li>ALWAYS - every capture is queued for writing straight away</li>
+ *     <li>ON_FAILURE - the last N captures of the current test are held in memory and written only if it fails</li>
+ *     <li>OFF - nothing is captured</li>
+ * </ul>
+ * Settings: screenshot.format (png or jpeg), screenshot.quality (JPEG only, default 80),
+ * screenshot.buffer.frames (default 5), screenshot.writer.threads (default 2) and screenshot.queue.size (default 32).
+ * When the queue is full the test thread writes the frame itself, which bounds memory use.
+ */
+public class ScreenshotPipeline {
+    private static final ThreadLocal<TestKey> currentTest = new ThreadLocal<>();
+    private static final ThreadLocal<Deque<Frame>> pendingFrames = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final AtomicLong invocations = new AtomicLong();
+    private static final AtomicLong captures = new AtomicLong();
+    private static final AtomicLong captureNanos = new AtomicLong();
+    private static final AtomicLong writes = new AtomicLong();
+    private static final AtomicLong writeNanos = new AtomicLong();
+    private static final AtomicLong bytesHandled = new AtomicLong();
+    private static final AtomicLong discarded = new AtomicLong();
+    private static final AtomicLong writtenOnTestThread = new AtomicLong();
+    private static ThreadPoolExecutor writer;
+
+    /**
+     * Starts a test on the current thread. Screenshots are indexed under this test and data row.
+     */
+    public static void startTest(String test, String row) {
+        currentTest.set(new TestKey(test, row == null ? "" : row, invocations.incrementAndGet()));
+        pendingFrames.remove();
+    }
+
+    /**
+     * Captures the page and hands the frame to the pipeline according to the artifact policy
+     */
+    public static void capture(Page page, String name) {
+        ArtifactPolicy policy = ExecutionProfile.current().getArtifactPolicy();
+        if (policy == ArtifactPolicy.OFF) {
+            return;
+        }
+        Log.info("Taking screenshot: " + name);
+        boolean jpeg = isJpeg();
+        Page.ScreenshotOptions options = new Page.ScreenshotOptions()
+                .setType(jpeg ? ScreenshotType.JPEG : ScreenshotType.PNG);
+        if (jpeg) {
+            options.setQuality(Config.getInt("screenshot.quality", 80));
+        }
+
+        long start = System.nanoTime();
+        byte[] image;
+        try {
+            image = page.screenshot(options);
+        } catch (PlaywrightException e) {
+            Log.warn("Could not take screenshot " + name + ": " + e.getMessage());
+            return;
+        }
+        captures.incrementAndGet();
+        captureNanos.addAndGet(System.nanoTime() - start);
+
+        TestKey test = currentTest.get();
+        if (test == null) {
+            test = new TestKey(Thread.currentThread().getName(), "", invocations.incrementAndGet());
+            currentTest.set(test);
+        }
+        Frame frame = new Frame(test, test.nextSequence++, name, Instant.now(), image, jpeg ? "jpg" : "png");
+        if (policy == ArtifactPolicy.ALWAYS) {
+            submit(frame);
+            return;
+        }
+        Deque<Frame> frames = pendingFrames.get();
+        frames.addLast(frame);
+        if (frames.size() > Config.getInt("screenshot.buffer.frames", 5)) {
+            frames.removeFirst();
+            discarded.incrementAndGet();
+        }
+    }
+
+    /**
+     * Ends the current test: its buffered frames are written if it failed and dropped otherwise
+     */
+    public static void finishTest(boolean failed) {
+        Deque<Frame> frames = pendingFrames.get();
+        if (failed && !frames.isEmpty()) {
+            Log.info("Writing " + frames.size() + " buffered screenshots of failed test");
+            frames.forEach(ScreenshotPipeline::submit);
+        } else {
+            discarded.addAndGet(frames.size());
+        }
+        pendingFrames.remove();
+        currentTest.remove();
+    }
+
+    /**
+     * Waits for queued frames to be written and stops the writer threads
+     */
+    public static void shutdown() {
+        ThreadPoolExecutor executor;
+        synchronized (ScreenshotPipeline.class) {
+            executor = writer;
+            writer = null;
+        }
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                Log.warn("Screenshot writer did not finish within 30 seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ScreenshotStore.writeIndex();
+    }
+
+    /**
+     * Gets a one-line summary of capture time on the test threads and write time moved off them
+     */
+    public static String getStats() {
+        return "Screenshots - captured: " + captures.get()
+                + " (" + captureNanos.get() / 1_000_000 + " ms on test threads)"
+                + ", stored: " + writes.get() + " (" + bytesHandled.get() / 1024 + " KB, "
+                + writeNanos.get() / 1_000_000 + " ms, " + writtenOnTestThread.get() + " on test threads)"
+                + ", discarded: " + discarded.get();
+    }
+
+    private static boolean isJpeg() {
+        String format = Config.get("screenshot.format", "png").toLowerCase();
+        return format.equals("jpeg") || format.equals("jpg");
+    }
+
+    private static void submit(Frame frame) {
+        writer().execute(() -> write(frame));
+    }
+
+    private static void write(Frame frame) {
+        long start = System.nanoTime();
+        try {
+            ScreenshotStore.put(frame.test.name, frame.test.row, frame.test.invocation, frame.sequence, frame.step,
+                    frame.capturedAt, frame.image, frame.extension);
+            writes.incrementAndGet();
+            bytesHandled.addAndGet(frame.image.length);
+        } catch (IOException e) {
+            Log.warn("Could not store screenshot " + frame.step + ": " + e.getMessage());
+        }
+        writeNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    private static synchronized ThreadPoolExecutor writer() {
+        if (writer == null) {
+            int threads = Config.getInt("screenshot.writer.threads", 2);
+            AtomicInteger count = new AtomicInteger();
+            RejectedExecutionHandler runOnCaller = (task, executor) -> {
+                writtenOnTestThread.incrementAndGet();
+                task.run();
+            };
+            writer = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Config.getInt("screenshot.queue.size", 32)),
+                    task -> {
+                        Thread thread = new Thread(task, "screenshot-writer-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    runOnCaller);
+        }
+        return writer;
+    }
+
+    /**
+     * One invocation of a test and data row running on a thread, with the sequence number of its next screenshot.
+     * Rows without a TestCase value, or with a repeated one, are told apart by the invocation number.
+     */
+    private static class TestKey {
+        private final String name;
+        private final String row;
+        private final long invocation;
+        private int nextSequence;
+
+        TestKey(String name, String row, long invocation) {
+            this.name = name;
+            this.row = row;
+            this.invocation = invocation;
+        }
+    }
+
+    /**
+     * Encoded image of one test step waiting to be stored
+     */
+    private static class Frame {
+        private final TestKey test;
+        private final int sequence;
+        private final String step;
+        private final Instant capturedAt;
+        private final byte[] image;
+        private final String extension;
+
+        Frame(TestKey test, int sequence, String step, Instant capturedAt, byte[] image, String extension) {
+            this.test = test;
+            this.sequence = sequence;
+            this.step = step;
+            this.capturedAt = capturedAt;
+            this.image = image;
+            this.extension = extension;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed screenshot storage. Images are stored once under screenshots/blobs/&lt;sha256&gt;.&lt;ext&gt;,
+ * so identical captures share a file and parallel tests never write to the same path.
+ * screenshots/index.json (-Dscreenshots.index) maps every test, data row and step to its blob.
+ */
+public class ScreenshotStore {
+    private static final Path ROOT = Paths.get("screenshots");
+    private static final Path BLOBS = ROOT.resolve("blobs");
+    // Fork workers each write their own index, merged by the ForkRunner
+    private static final Path INDEX = Paths.get(Config.get("screenshots.index", ROOT.resolve("index.json").toString()));
+
+    private static final Set<String> storedBlobs = ConcurrentHashMap.newKeySet();
+    private static final Queue<Entry> entries = new ConcurrentLinkedQueue<>();
+    private static final AtomicLong blobsWritten = new AtomicLong();
+    private static final AtomicLong bytesWritten = new AtomicLong();
+    private static final AtomicLong duplicates = new AtomicLong();
+    private static final AtomicLong bytesSaved = new AtomicLong();
+
+    /**
+     * Stores an image unless the same content is already stored and records it in the index
+     *
+     * @return the blob path relative to the screenshots directory
+     */
+    public static String put(String test, String row, long invocation, int sequence, String step,
+                             Instant capturedAt, byte[] image, String extension) throws IOException {
+        String blob = "blobs/" + sha256(image) + "." + extension;
+        Path path = ROOT.resolve(blob);
+        // Blobs from earlier runs are reused as well
+        if (!storedBlobs.add(blob) || Files.exists(path)) {
+            duplicates.incrementAndGet();
+            bytesSaved.addAndGet(image.length);
+        } else {
+            Files.createDirectories(BLOBS);
+            Path temp = Files.createTempFile(BLOBS, "blob", ".tmp");
+            try {
+                Files.write(temp, image);
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            blobsWritten.incrementAndGet();
+            bytesWritten.addAndGet(image.length);
+        }
+        entries.add(new Entry(test, row, invocation, sequence, step, capturedAt, blob));
+        return blob;
+    }
+
+    /**
+     * Writes screenshots/index.json with the screenshots of this run grouped by test invocation
+     */
+    public static void writeIndex() {
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparing((Entry entry) -> entry.test)
+                .thenComparing(entry -> entry.row)
+                .thenComparingLong(entry -> entry.invocation)
+                .thenComparingInt(entry -> entry.sequence));
+
+        Map<String, Map<String, Object>> groups = new LinkedHashMap<>();
+        for (Entry entry : sorted) {
+            // Every invocation is a group of its own, even when test and row repeat
+            String key = entry.test + "#" + entry.row + "#" + entry.invocation;
+            Map<String, Object> group = groups.computeIfAbsent(key, k -> {
+                Map<String, Object> newGroup = new LinkedHashMap<>();
+                newGroup.put("test", entry.test);
+                newGroup.put("row", entry.row);
+                newGroup.put("invocation", entry.invocation);
+                newGroup.put("screenshots", new ArrayList<Map<String, Object>>());
+                return newGroup;
+            });
+            Map<String, Object> screenshot = new LinkedHashMap<>();
+            screenshot.put("step", entry.step);
+            screenshot.put("blob", entry.blob);
+            screenshot.put("capturedAt", entry.capturedAt.toString());
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> screenshots = (List<Map<String, Object>>) group.get("screenshots");
+            screenshots.add(screenshot);
+        }
+
+        try {
+            Files.createDirectories(INDEX.toAbsolutePath().getParent());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(INDEX.toFile(), new ArrayList<>(groups.values()));
+            Log.info("Wrote screenshot index: " + INDEX);
+        } catch (IOException e) {
+            Log.warn("Could not write screenshot index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets a one-line summary of stored blobs and duplicates skipped
+     */
+    public static String getStats() {
+        return "Screenshot store - blobs written: " + blobsWritten.get() + " (" + bytesWritten.get() / 1024 + " KB)"
+                + ", duplicates: " + duplicates.get() + " (" + bytesSaved.get() / 1024 + " KB saved)"
+                + ", indexed: " + entries.size();
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * One stored screenshot of a test step
+     */
+    private static class Entry {
+        private final String test;
+        private final String row;
+        private final long invocation;
+        private final int sequence;
+        private final String step;
+        private final Instant capturedAt;
+        private final String blob;
+
+        Entry(String test, String row, long invocation, int sequence, String step, Instant capturedAt, String blob) {
+            this.test = test;
+            this.row = row;
+            this.invocation = invocation;
+            this.sequence = sequence;
+            this.step = step;
+            this.capturedAt = capturedAt;
+            this.blob = blob;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package utils;
+
+import com.microsoft.playwright.options.Cookie;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide cache of authenticated sessions keyed by login URL and username.
+ * A credential is logged in through the UI once and its storage state is reused by later contexts.
+ */
+public class SessionCache {
+    private static final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private static final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong logins = new AtomicLong();
+    private static final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Checks whether session reuse is switched on (-Dsession.cache=false turns it off)
+     */
+    public static boolean isEnabled() {
+        return Config.getBoolean("session.cache", true);
+    }
+
+    /**
+     * Gets the cached session for a credential, or null when there is none or it has expired
+     */
+    public static Session get(String url, String username) {
+        String key = key(url, username);
+        Session session = sessions.get(key);
+        if (session == null) {
+            return null;
+        }
+        if (session.isExpired()) {
+            Log.info("Cached session for " + username + " has expired");
+            sessions.remove(key, session);
+            invalidations.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return session;
+    }
+
+    /**
+     * Gets the cached session for a credential without counting it as reuse, or null when there is
+     * none or it has expired
+     */
+    public static Session peek(String url, String username) {
+        Session session = sessions.get(key(url, username));
+        return session == null || session.isExpired() ? null : session;
+    }
+
+    /**
+     * Drops a session that turned out to be stale
+     */
+    public static void invalidate(String url, String username, Session session) {
+        if (session != null && sessions.remove(key(url, username), session)) {
+            Log.info("Invalidated stale session for " + username);
+            invalidations.incrementAndGet();
+        }
+    }
+
+    /**
+     * Replaces a missing or stale session by running the given UI login.
+     * Logins for the same credential are serialized; if another worker has already stored a newer
+     * session meanwhile, that one is returned and the login is skipped.
+     * Returns null when the login did not succeed.
+     */
+    public static Session refresh(String url, String username, Session stale, Supplier<Session> login) {
+        String key = key(url, username);
+        ReentrantLock lock = locks.computeIfAbsent(key, k -> new ReentrantLock());
+        lock.lock();
+        try {
+            Session current = sessions.get(key);
+            if (current != null && current != stale && !current.isExpired()) {
+                hits.incrementAndGet();
+                return current;
+            }
+            if (stale != null) {
+                invalidate(url, username, stale);
+            }
+            logins.incrementAndGet();
+            Session fresh = login.get();
+            if (fresh != null) {
+                sessions.put(key, fresh);
+                Log.info("Cached authenticated session for " + username);
+            } else {
+                sessions.remove(key);
+            }
+            return fresh;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets a one-line summary of session reuse
+     */
+    public static String getStats() {
+        return "Session cache - UI logins: " + logins.get()
+                + ", reused sessions: " + hits.get()
+                + ", invalidated sessions: " + invalidations.get();
+    }
+
+    private static String key(String url, String username) {
+        return url + "|" + username;
+    }
+
+    /**
+     * Storage state, cookies and landing page of one authenticated session
+     */
+    public static class Session {
+        private final String storageState;
+        private final List<Cookie> cookies;
+        private final String landingUrl;
+        private final long createdAt = System.currentTimeMillis();
+
+        public Session(String storageState, List<Cookie> cookies, String landingUrl) {
+            this.storageState = storageState;
+            this.cookies = cookies;
+            this.landingUrl = landingUrl;
+        }
+
+        public String getStorageState() {
+            return storageState;
+        }
+
+        public List<Cookie> getCookies() {
+            return cookies;
+        }
+
+        public String getLandingUrl() {
+            return landingUrl;
+        }
+
+        /**
+         * Checks whether the session is older than session.ttl.minutes (default 30)
+         */
+        public boolean isExpired() {
+            long ttlMillis = Config.getInt("session.ttl.minutes", 30) * 60_000L;
+            return System.currentTimeMillis() - createdAt > ttlMillis;
+        }
+    }
+}
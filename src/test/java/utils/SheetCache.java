@@ -0,0 +1,81 @@
+package utils;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide cache of parsed test data sheets keyed by file path and sheet name.
+ * An entry is reused until the file's modification time or size changes.
+ */
+public class SheetCache {
+    private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Gets the rows of a sheet, running the loader only when the sheet is not cached or the file
+     * has changed. A loader returning null (e.g. on a read error) is not cached.
+     * Concurrent callers for the same sheet wait for a single load.
+     */
+    public static List<Map<String, String>> get(String filePath, String sheetName,
+                                                Supplier<List<Map<String, String>>> loader) {
+        String key = filePath + "#" + sheetName;
+        File file = new File(filePath);
+        long modified = file.lastModified();
+        long size = file.length();
+
+        Entry entry = entries.get(key);
+        if (entry != null && entry.matches(modified, size)) {
+            hits.incrementAndGet();
+            return entry.rows;
+        }
+        entry = entries.compute(key, (k, current) -> {
+            if (current != null && current.matches(modified, size)) {
+                hits.incrementAndGet();
+                return current;
+            }
+            misses.incrementAndGet();
+            List<Map<String, String>> rows = loader.get();
+            return rows == null ? null : new Entry(modified, size, rows);
+        });
+        return entry == null ? Collections.emptyList() : entry.rows;
+    }
+
+    /**
+     * Drops all cached sheets
+     */
+    public static void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Gets a one-line summary of cache hits and misses
+     */
+    public static String getStats() {
+        return "Sheet cache - hits: " + hits.get() + ", misses: " + misses.get() + ", cached sheets: " + entries.size();
+    }
+
+    /**
+     * Parsed rows of one sheet with the file version they were read from
+     */
+    private static class Entry {
+        private final long modified;
+        private final long size;
+        private final List<Map<String, String>> rows;
+
+        Entry(long modified, long size, List<Map<String, String>> rows) {
+            this.modified = modified;
+            this.size = size;
+            this.rows = Collections.unmodifiableList(rows);
+        }
+
+        boolean matches(long modified, long size) {
+            return this.modified == modified && this.size == size;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package utils;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.PlaywrightException;
+import com.microsoft.playwright.Tracing;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Playwright tracing for one test's browser context. Select the mode with -Dtrace.mode:
+ * <ul>
+ *     <li>full - one trace of the whole test, kept according to the artifact policy</li>
+ *     <li>ring - the trace is recorded in chunks of trace.chunk.actions page actions (default 10) and only the
+ *     last trace.chunks.kept chunks (default 3) are kept on disk. They are persisted when the test fails
+ *     (unless the artifact policy is OFF) and deleted when it passes.</li>
+ * </ul>
+ * Every chunk is a complete trace that opens in the Playwright trace viewer.
+ */
+public class TraceRecorder {
+    private static final Path TRACE_DIR = Paths.get("traces");
+    private static final Path WORK_DIR = TRACE_DIR.resolve("work");
+
+    private static final ThreadLocal<TraceRecorder> current = new ThreadLocal<>();
+    private static final AtomicLong tracedTests = new AtomicLong();
+    private static final AtomicLong persistedTraces = new AtomicLong();
+    private static final AtomicLong chunksWritten = new AtomicLong();
+    private static final AtomicLong chunksDiscarded = new AtomicLong();
+    private static final AtomicLong bytesPersisted = new AtomicLong();
+    private static final AtomicLong tracingNanos = new AtomicLong();
+
+    private final BrowserContext context;
+    private final String testName;
+    private final boolean ring;
+    private final int chunkActions;
+    private final int chunksKept;
+    private final Deque<Path> chunks = new ArrayDeque<>();
+    private int actionsInChunk;
+    private int chunkNumber;
+
+    private TraceRecorder(BrowserContext context, String testName) {
+        this.context = context;
+        this.testName = testName;
+        this.ring = "ring".equalsIgnoreCase(Config.get("trace.mode", "full"));
+        this.chunkActions = Math.max(1, Config.getInt("trace.chunk.actions", 10));
+        this.chunksKept = Math.max(1, Config.getInt("trace.chunks.kept", 3));
+    }
+
+    /**
+     * Starts tracing the context for the test and data row running on the current thread
+     *
+     * @param dataRow the TestCase value of the data row, or null
+     */
+    public static void start(BrowserContext context, String testName, String dataRow) {
+        String name = dataRow == null || dataRow.isEmpty() ? testName : testName + "_" + dataRow;
+        TraceRecorder recorder = new TraceRecorder(context, name.replaceAll("[^A-Za-z0-9._-]", "_"));
+        long start = System.nanoTime();
+        try {
+            context.tracing().start(new Tracing.StartOptions()
+                    .setScreenshots(true)
+                    .setSnapshots(true));
+            if (recorder.ring) {
+                context.tracing().startChunk();
+            }
+            current.set(recorder);
+            tracedTests.incrementAndGet();
+        } catch (PlaywrightException e) {
+            Log.warn("Could not start tracing: " + e.getMessage());
+        }
+        tracingNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    /**
+     * Counts a page action of the current test. In ring mode this closes the current chunk once it
+     * holds enough actions and drops the oldest chunk beyond the window.
+     */
+    public static void recordAction() {
+        TraceRecorder recorder = current.get();
+        if (recorder != null && recorder.ring && ++recorder.actionsInChunk >= recorder.chunkActions) {
+            long start = System.nanoTime();
+            recorder.rotate();
+            tracingNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Stops tracing the current test and keeps or discards what was recorded
+     */
+    public static void finish(boolean failed) {
+        TraceRecorder recorder = current.get();
+        current.remove();
+        if (recorder == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            if (recorder.ring) {
+                recorder.finishRing(failed);
+            } else {
+                recorder.finishFull(failed);
+            }
+        } catch (PlaywrightException | IOException e) {
+            Log.warn("Could not stop tracing: " + e.getMessage());
+        }
+        tracingNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    /**
+     * Gets a one-line summary of time spent in tracing calls and how many traces were kept
+     */
+    public static String getStats() {
+        long tests = tracedTests.get();
+        long persisted = persistedTraces.get();
+        return "Tracing - tests traced: " + tests + ", persisted: " + persisted
+                + ", discarded: " + (tests - persisted)
+                + " (" + (tests == 0 ? 0 : (tests - persisted) * 100 / tests) + "%)"
+                + ", chunks written: " + chunksWritten.get() + ", chunks dropped: " + chunksDiscarded.get()
+                + ", persisted size: " + bytesPersisted.get() / 1024 + " KB"
+                + ", time in tracing calls: " + tracingNanos.get() / 1_000_000 + " ms"
+                + " (avg " + (tests == 0 ? 0 : tracingNanos.get() / tests / 1_000_000) + " ms per test)";
+    }
+
+    private void rotate() {
+        try {
+            stopChunk();
+            context.tracing().startChunk();
+        } catch (PlaywrightException | IOException e) {
+            Log.warn("Could not rotate trace chunk: " + e.getMessage());
+        }
+    }
+
+    private void stopChunk() throws IOException {
+        Files.createDirectories(WORK_DIR);
+        Path chunk = WORK_DIR.resolve(Thread.currentThread().getId() + "_" + testName + "_" + (++chunkNumber) + ".zip");
+        context.tracing().stopChunk(new Tracing.StopChunkOptions().setPath(chunk));
+        chunksWritten.incrementAndGet();
+        chunks.addLast(chunk);
+        actionsInChunk = 0;
+        while (chunks.size() > chunksKept) {
+            Files.deleteIfExists(chunks.removeFirst());
+            chunksDiscarded.incrementAndGet();
+        }
+    }
+
+    private void finishRing(boolean failed) throws IOException {
+        try {
+            stopChunk();
+        } finally {
+            context.tracing().stop();
+        }
+        if (failed && ExecutionProfile.current().getArtifactPolicy() != ArtifactPolicy.OFF) {
+            Path target = Files.createTempDirectory(Files.createDirectories(TRACE_DIR), filePrefix());
+            int part = 1;
+            for (Path chunk : chunks) {
+                Path file = target.resolve(String.format("chunk-%02d.zip", part++));
+                Files.move(chunk, file, StandardCopyOption.REPLACE_EXISTING);
+                bytesPersisted.addAndGet(Files.size(file));
+            }
+            persistedTraces.incrementAndGet();
+            Log.info("Saved last " + chunks.size() + " trace chunks of failed test: " + target);
+        } else {
+            for (Path chunk : chunks) {
+                Files.deleteIfExists(chunk);
+            }
+        }
+        chunks.clear();
+    }
+
+    private String filePrefix() {
+        return testName + "_" + System.currentTimeMillis() + "_";
+    }
+
+    private void finishFull(boolean failed) throws IOException {
+        if (ExecutionProfile.current().getArtifactPolicy().shouldKeep(failed)) {
+            // A unique file, so parallel rows finishing in the same millisecond never overwrite each other
+            Path tracePath = Files.createTempFile(Files.createDirectories(TRACE_DIR), filePrefix(), ".zip");
+            context.tracing().stop(new Tracing.StopOptions().setPath(tracePath));
+            bytesPersisted.addAndGet(Files.size(tracePath));
+            persistedTraces.incrementAndGet();
+            Log.info("Saved trace: " + tracePath);
+        } else {
+            context.tracing().stop();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package utils;
+
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a whole sheet through the POI workbook model.
+ * Kept apart from ExcelUtils so POI is only loaded when a sheet actually has to be parsed.
+ */
+class WorkbookSheetReader {
+
+    /**
+     * Parses one sheet of the workbook into read-only rows, or returns null when the file cannot be read
+     */
+    static List<Map<String, String>> readSheet(String filePath, String sheetName) {
+        List<Map<String, String>> testDataList = new ArrayList<>();
+        
+        try (FileInputStream fis = new FileInputStream(filePath);
+             Workbook workbook = new XSSFWorkbook(fis)) {
+            
+            Sheet sheet = workbook.getSheet(sheetName);
+            if (sheet == null) {
+                Log.error("Sheet '" + sheetName + "' not found in Excel file");
+                return testDataList;
+            }
+
+            // Get header row
+            Row headerRow = sheet.getRow(0);
+            if (headerRow == null) {
+                Log.error("Header row not found in sheet '" + sheetName + "'");
+                return testDataList;
+            }
+
+            // Get column names
+            List<String> columnNames = new ArrayList<>();
+            for (Cell cell : headerRow) {
+                columnNames.add(getCellValueAsString(cell));
+            }
+
+            // Read data rows, all sharing one schema
+            RowSchema schema = new RowSchema(columnNames);
+            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
+                Row row = sheet.getRow(i);
+                if (row != null) {
+                    String[] values = new String[schema.size()];
+                    for (int j = 0; j < values.length; j++) {
+                        values[j] = getCellValueAsString(row.getCell(j));
+                    }
+                    testDataList.add(new DataRow(schema, values));
+                }
+            }
+
+        } catch (IOException e) {
+            Log.error("Error reading Excel file: " + e.getMessage(), e);
+            return null;
+        }
+
+        return testDataList;
+    }
+
+    /**
+     * Gets cell value as string regardless of cell type
+     */
+    private static String getCellValueAsString(Cell cell) {
+        if (cell == null) {
+            return "";
+        }
+
+        switch (cell.getCellType()) {
+            case STRING:
+                return cell.getStringCellValue();
+            case NUMERIC:
+                if (DateUtil.isCellDateFormatted(cell)) {
+                    return cell.getDateCellValue().toString();
+                } else {
+                    return String.valueOf((long) cell.getNumericCellValue());
+                }
+            case BOOLEAN:
+                return String.valueOf(cell.getBooleanCellValue());
+            case FORMULA:
+                return cell.getCellFormula();
+            default:
+                return "";
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package utils;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * Streams the rows of one XLSX sheet with a StAX pull parser instead of loading the workbook DOM.
+ * Rows are parsed only when requested, so memory stays flat whatever the sheet size.
+ * Cell values are formatted the same way as WorkbookSheetReader does for the in-memory reader.
+ */
+public class XlsxStreamReader implements Iterator<Map<String, String>>, Closeable {
+    private final OPCPackage pkg;
+    private final ReadOnlySharedStringsTable sharedStrings;
+    private final StylesTable styles;
+    private final InputStream sheetStream;
+    private final XMLStreamReader xml;
+    private RowSchema schema;
+    private final Map<Integer, Boolean> dateStyles = new HashMap<>();
+    private Map<String, String> nextRow;
+    private boolean finished;
+
+    /**
+     * Opens the sheet and reads its header row. Throws when the file or the sheet cannot be opened.
+     */
+    public XlsxStreamReader(String filePath, String sheetName) throws Exception {
+        pkg = OPCPackage.open(filePath, PackageAccess.READ);
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            sharedStrings = new ReadOnlySharedStringsTable(pkg);
+            styles = reader.getStylesTable();
+            sheetStream = findSheet(reader, sheetName);
+            XMLInputFactory factory = XMLInputFactory.newFactory();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            xml = factory.createXMLStreamReader(sheetStream);
+            readHeader(sheetName);
+        } catch (Exception e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextRow == null && !finished) {
+            nextRow = readDataRow();
+        }
+        return nextRow != null;
+    }
+
+    @Override
+    public Map<String, String> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Map<String, String> row = nextRow;
+        nextRow = null;
+        return row;
+    }
+
+    @Override
+    public void close() {
+        finished = true;
+        try {
+            if (xml != null) {
+                xml.close();
+            }
+            if (sheetStream != null) {
+                sheetStream.close();
+            }
+        } catch (Exception e) {
+            Log.warn("Error closing sheet stream: " + e.getMessage());
+        }
+        pkg.revert();
+    }
+
+    private static InputStream findSheet(XSSFReader reader, String sheetName) throws Exception {
+        XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+        while (sheets.hasNext()) {
+            InputStream stream = sheets.next();
+            if (sheetName.equals(sheets.getSheetName())) {
+                return stream;
+            }
+            stream.close();
+        }
+        throw new IllegalArgumentException("Sheet '" + sheetName + "' not found in Excel file");
+    }
+
+    private void readHeader(String sheetName) throws XMLStreamException {
+        ParsedRow header = readRow();
+        if (header == null || header.index != 0) {
+            Log.error("Header row not found in sheet '" + sheetName + "'");
+            close();
+            return;
+        }
+        // Like the in-memory reader, only existing header cells become columns
+        schema = new RowSchema(new ArrayList<>(header.cells.values()));
+    }
+
+    private Map<String, String> readDataRow() {
+        try {
+            ParsedRow parsed = readRow();
+            if (parsed == null) {
+                close();
+                return null;
+            }
+            String[] values = new String[schema.size()];
+            for (int j = 0; j < values.length; j++) {
+                String value = parsed.cells.get(j);
+                values[j] = value == null ? "" : value;
+            }
+            return new DataRow(schema, values);
+        } catch (XMLStreamException e) {
+            Log.error("Error streaming Excel sheet: " + e.getMessage(), e);
+            close();
+            return null;
+        }
+    }
+
+    /**
+     * Reads the next row element, or returns null at the end of the sheet data
+     */
+    private ParsedRow readRow() throws XMLStreamException {
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT && "row".equals(xml.getLocalName())) {
+                ParsedRow row = new ParsedRow(Integer.parseInt(xml.getAttributeValue(null, "r")) - 1);
+                int nextColumn = 0;
+                while (xml.hasNext()) {
+                    event = xml.next();
+                    if (event == XMLStreamConstants.START_ELEMENT && "c".equals(xml.getLocalName())) {
+                        String ref = xml.getAttributeValue(null, "r");
+                        int column = ref == null ? nextColumn : columnIndex(ref);
+                        row.cells.put(column, readCell());
+                        nextColumn = column + 1;
+                    } else if (event == XMLStreamConstants.END_ELEMENT && "row".equals(xml.getLocalName())) {
+                        return row;
+                    }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "sheetData".equals(xml.getLocalName())) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads one cell element positioned at its start tag and formats its value
+     */
+    private String readCell() throws XMLStreamException {
+        String type = xml.getAttributeValue(null, "t");
+        String style = xml.getAttributeValue(null, "s");
+        String formula = null;
+        String value = null;
+        StringBuilder inline = null;
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = xml.getLocalName();
+                if ("f".equals(name)) {
+                    formula = xml.getElementText();
+                } else if ("v".equals(name)) {
+                    value = xml.getElementText();
+                } else if ("t".equals(name)) {
+                    if (inline == null) {
+                        inline = new StringBuilder();
+                    }
+                    inline.append(xml.getElementText());
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "c".equals(xml.getLocalName())) {
+                break;
+            }
+        }
+        return formatCell(type, style, formula, value, inline);
+    }
+
+    private String formatCell(String type, String style, String formula, String value, StringBuilder inline) {
+        if (formula != null) {
+            return formula;
+        }
+        if ("inlineStr".equals(type)) {
+            return inline == null ? "" : inline.toString();
+        }
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        if ("s".equals(type)) {
+            return sharedStrings.getItemAt(Integer.parseInt(value)).getString();
+        }
+        if ("b".equals(type)) {
+            return String.valueOf("1".equals(value));
+        }
+        if ("e".equals(type) || "str".equals(type)) {
+            return "";
+        }
+        double number = Double.parseDouble(value);
+        if (style != null && DateUtil.isValidExcelDate(number) && isDateStyle(Integer.parseInt(style))) {
+            return DateUtil.getJavaDate(number).toString();
+        }
+        return String.valueOf((long) number);
+    }
+
+    private boolean isDateStyle(int styleIndex) {
+        return dateStyles.computeIfAbsent(styleIndex, index -> {
+            XSSFCellStyle cellStyle = styles.getStyleAt(index);
+            return cellStyle != null && DateUtil.isADateFormat(cellStyle.getDataFormat(), cellStyle.getDataFormatString());
+        });
+    }
+
+    /**
+     * Gets the zero-based column of a cell reference such as "AB12"
+     */
+    private static int columnIndex(String ref) {
+        int column = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char c = ref.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    /**
+     * Zero-based row index and the formatted values of its cells by column
+     */
+    private static class ParsedRow {
+        private final int index;
+        private final Map<Integer, String> cells = new TreeMap<>();
+
+        ParsedRow(int index) {
+            this.index = index;
+        }
+    }
+}